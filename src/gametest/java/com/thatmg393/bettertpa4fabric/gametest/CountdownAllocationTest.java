@@ -0,0 +1,101 @@
+package com.thatmg393.bettertpa4fabric.gametest;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import com.mojang.authlib.GameProfile;
+import com.thatmg393.bettertpa4fabric.config.ConfigField;
+import com.thatmg393.bettertpa4fabric.config.ModConfigManager;
+import com.thatmg393.bettertpa4fabric.config.data.CountdownDisplayMode;
+import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+import com.thatmg393.bettertpa4fabric.tpa.request.TPABackRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.TPAHereRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.TPARequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.TickableTaskProcessor;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.gametest.v1.GameTest;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.test.TestContext;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Runs real {@link TeleportTask}s through {@link TickableTaskProcessor#doTick()} and
+ * checks that, once warmed up, a countdown tick allocates nothing, with every
+ * {@link CountdownDisplayMode}. Player and position destinations are both covered.
+ * Everything runs inside one server tick, so the destination chunk tickets are
+ * placed during warm-up and not refreshed while measuring.
+ */
+public class CountdownAllocationTest {
+    private static final com.sun.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean()
+        instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported() ? bean : null;
+
+    private static final int COUNTDOWNS = 32;
+    // long enough that no countdown finishes while the test runs
+    private static final long COUNTDOWN_TICKS = 1_000_000;
+    private static final int WARMUP_TICKS = 5_000;
+    private static final int MEASURED_TICKS = 5_000;
+
+    @GameTest
+    public void countdownTicksDontAllocate(TestContext context) {
+        context.assertTrue(THREADS != null, Text.literal("This JVM can't count allocated bytes per thread"));
+
+        ConfigField displayField = ConfigField.get("countdownDisplay");
+        String originalMode = ModConfigManager.snapshot().countdownDisplay().name();
+
+        try {
+            for (CountdownDisplayMode mode : CountdownDisplayMode.values()) {
+                ModConfigManager.set(displayField, mode.name());
+
+                long allocated = measureCountdownTicks(context.getWorld(), context.getAbsolutePos(BlockPos.ORIGIN));
+                context.assertTrue(allocated == 0, Text.literal(
+                    mode + ": " + MEASURED_TICKS + " countdown ticks allocated " + allocated + " bytes"
+                ));
+            }
+        } finally {
+            ModConfigManager.set(displayField, originalMode);
+        }
+
+        context.complete();
+    }
+
+    private static long measureCountdownTicks(ServerWorld world, BlockPos origin) {
+        TickableTaskProcessor<TeleportTask> processor = new TickableTaskProcessor<>();
+        ObjectArrayList<ServerPlayerEntity> players = new ObjectArrayList<>();
+
+        try {
+            for (int i = 0; i < COUNTDOWNS; i++) {
+                ServerPlayerEntity requester = fakePlayer(world, "countdown-" + i);
+                ServerPlayerEntity target = fakePlayer(world, "countdown-target-" + i);
+                players.add(requester);
+                players.add(target);
+
+                BaseRequest request = switch (i % 3) {
+                    case 0 -> new TPARequest(requester, target);
+                    case 1 -> new TPAHereRequest(target, requester);
+                    default -> new TPABackRequest(requester, new TeleportTarget.PositionTarget(world.getRegistryKey(), origin.add(i * 16, 0, 0)));
+                };
+                processor.putTask(new TeleportTask(request, request.getTeleportingPlayer(), request.getDestination(), COUNTDOWN_TICKS - i));
+            }
+
+            for (int i = 0; i < WARMUP_TICKS; i++) processor.doTick();
+
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < MEASURED_TICKS; i++) processor.doTick();
+            return THREADS.getCurrentThreadAllocatedBytes() - before;
+        } finally {
+            // the tasks were never handed to TeleportManager, only their displays were
+            for (ServerPlayerEntity player : players) TeleportManager.INSTANCE.getCountdownDisplays().forget(player.getUuid());
+        }
+    }
+
+    private static ServerPlayerEntity fakePlayer(ServerWorld world, String name) {
+        return FakePlayer.get(world, new GameProfile(UUID.nameUUIDFromBytes(name.getBytes()), name));
+    }
+}
@@ -0,0 +1,17 @@
+package com.thatmg393.bettertpa4fabric.benchmark;
+
+import com.thatmg393.bettertpa4fabric.tpa.request.TPARequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+
+/**
+ * Requests without players behind them. Anything that needs a real
+ * ServerPlayerEntity would need a bootstrapped server, so benchmarks stay on
+ * the data structures those requests flow through.
+ */
+final class BenchmarkRequests {
+    private BenchmarkRequests() { }
+
+    static BaseRequest create() {
+        return new TPARequest(null, null);
+    }
+}
@@ -0,0 +1,136 @@
+package com.thatmg393.bettertpa4fabric.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.thatmg393.bettertpa4fabric.tpa.display.CountdownDisplays;
+import com.thatmg393.bettertpa4fabric.tpa.request.TPAHereRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.TPARequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.RequestKeys;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.DefaultTickableTaskProcessor;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
+
+/**
+ * The per-request lookups the expiry sweep, accept/deny and the countdown do
+ * (message keys, target player and destination), and countdown ticks going
+ * through {@link DefaultTickableTaskProcessor#doTick()}. None of them should
+ * allocate, check {@code gc.alloc.rate.norm} in the results.
+ * <p>
+ * The countdowns here wake up and reschedule exactly like {@code TeleportTask},
+ * but they are not {@code TeleportTask}s: its {@code onTick()} reads real
+ * players and worlds through {@code CountdownDisplays.update} and
+ * {@code DestinationChunkTicket.track}, which need a bootstrapped server.
+ * Whether those calls allocate is checked by the {@code CountdownAllocationTest}
+ * gametest instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestDispatchBenchmark {
+    private BaseRequest[] requests;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        requests = new BaseRequest[1024];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = (i & 1) == 0 ? new TPARequest(null, null) : new TPAHereRequest(null, null);
+        }
+    }
+
+    @Benchmark
+    public void dispatch(Blackhole blackhole) {
+        for (BaseRequest request : requests) {
+            RequestKeys keys = request.getKeys();
+            blackhole.consume(keys.expiredSender());
+            blackhole.consume(keys.acceptedReceiver());
+            blackhole.consume(request.getTargetPlayer());
+
+            switch (request.getDestination()) {
+                case TeleportTarget.PlayerTarget player -> blackhole.consume(player.player());
+                case TeleportTarget.PositionTarget position -> blackhole.consume(position.pos());
+            }
+        }
+    }
+
+    @Benchmark
+    public int countdownTick(Countdowns countdowns) {
+        countdowns.processor.doTick();
+        return countdowns.processor.getTaskCount();
+    }
+
+    @State(Scope.Thread)
+    public static class Countdowns {
+        @Param({ "100", "1000" })
+        public int liveCountdowns;
+
+        @Param({ "true", "false" })
+        public boolean bossBar;
+
+        DefaultTickableTaskProcessor processor;
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            processor = new DefaultTickableTaskProcessor();
+            for (int i = 0; i < liveCountdowns; i++) {
+                // the default 3 second countdown, started on different ticks
+                processor.putTask(new CountdownTask(60 + (i % 20), 5, bossBar));
+            }
+        }
+    }
+
+    /**
+     * {@code TeleportTask}'s wake schedule with the player and world calls left
+     * out. It restarts itself when it runs out, so the processor stays at a
+     * steady number of live countdowns.
+     */
+    private static final class CountdownTask extends TickableTask {
+        private final long moveCheckInterval;
+        private final boolean bossBar;
+
+        private long displayWakeInterval = 1;
+        private long finishes;
+
+        CountdownTask(long tickDuration, long moveCheckInterval, boolean bossBar) {
+            super(tickDuration);
+            this.moveCheckInterval = moveCheckInterval;
+            this.bossBar = bossBar;
+        }
+
+        @Override
+        public long getWakeInterval() {
+            long ticksLeft = getTickDuration();
+            if (ticksLeft <= 1 || ticksLeft == getInitialTickDuration()) return 1;
+
+            return Math.min(Math.min(moveCheckInterval, displayWakeInterval), ticksLeft);
+        }
+
+        @Override
+        protected TickResult onTick() {
+            displayWakeInterval = CountdownDisplays.ticksUntilChange(getTickDuration(), getInitialTickDuration(), bossBar);
+            return TickResult.REPEAT;
+        }
+
+        @Override
+        protected void onFinish() {
+            finishes++;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.thatmg393.bettertpa4fabric.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestExpiryIndex;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+
+/** The part of a StaleRequestsCleanerTask sweep that scales with the number of pending requests. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestExpiryIndexBenchmark {
+    private static final long EXPIRE_MILLIS = 120_000;
+
+    @Param({ "100", "1000", "10000" })
+    public int pendingRequests;
+
+    private RequestExpiryIndex<BaseRequest> index;
+    private BaseRequest request;
+    private long now;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        index = new RequestExpiryIndex<>();
+        request = BenchmarkRequests.create();
+        now = 0;
+
+        for (int i = 0; i < pendingRequests; i++) {
+            index.add(1 + (i * EXPIRE_MILLIS) / pendingRequests, request);
+        }
+    }
+
+    @Benchmark
+    public BaseRequest sweepNothingDue() {
+        return index.pollExpired(0);
+    }
+
+    @Benchmark
+    public int sweepOneSecond() {
+        // one sweep per second, every expired request is immediately replaced by a new one
+        now += 1000;
+
+        int expired = 0;
+        while (index.pollExpired(now) != null) {
+            index.add(now + EXPIRE_MILLIS, request);
+            expired++;
+        }
+        return expired;
+    }
+}
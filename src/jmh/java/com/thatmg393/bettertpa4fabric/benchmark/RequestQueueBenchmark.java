@@ -0,0 +1,72 @@
+package com.thatmg393.bettertpa4fabric.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thatmg393.bettertpa4fabric.tpa.queue.OutgoingRequestIndex;
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueue;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestQueueBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int players;
+
+    private UUID[] senders;
+    private BaseRequest request;
+    private OutgoingRequestIndex outgoing;
+    private RequestQueue<UUID, BaseRequest> queue;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        senders = new UUID[players];
+        for (int i = 0; i < players; i++) senders[i] = UUID.randomUUID();
+
+        request = BenchmarkRequests.create();
+        outgoing = new OutgoingRequestIndex();
+        queue = new RequestQueue<>(UUID.randomUUID(), outgoing);
+
+        // a popular receiver: everyone else has a pending request to them
+        for (UUID sender : senders) queue.add(sender, request);
+    }
+
+    @Benchmark
+    public BaseRequest consumeByKeyThenAdd() {
+        UUID sender = senders[cursor++ % players];
+        BaseRequest consumed = queue.consumeByKey(sender);
+        queue.add(sender, consumed);
+        return consumed;
+    }
+
+    @Benchmark
+    public BaseRequest consumeFrontThenAdd() {
+        UUID sender = queue.firstKey();
+        BaseRequest consumed = queue.consume();
+        queue.add(sender, consumed);
+        return consumed;
+    }
+
+    @Benchmark
+    public boolean outgoingLookup() {
+        return outgoing.hasRequest(senders[cursor++ % players], queue.getOwner());
+    }
+}
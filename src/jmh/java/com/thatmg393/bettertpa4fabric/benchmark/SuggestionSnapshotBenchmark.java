@@ -0,0 +1,69 @@
+package com.thatmg393.bettertpa4fabric.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.thatmg393.bettertpa4fabric.command.suggestion.PlayerNameIndex;
+import com.thatmg393.bettertpa4fabric.command.suggestion.SuggestionSnapshot;
+
+/** The ALLOWED_PLAYERS suggestion path behind /tpa and /tpahere, and republishing it after a change. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionSnapshotBenchmark {
+    private static final String[] PREFIXES = { "", "P", "Pl", "Player1", "Player12" };
+
+    @Param({ "100", "1000", "10000" })
+    public int players;
+
+    private PlayerNameIndex index;
+    private SuggestionSnapshot snapshot;
+    private UUID[] requesters;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new PlayerNameIndex();
+        requesters = new UUID[players];
+
+        for (int i = 0; i < players; i++) {
+            requesters[i] = UUID.randomUUID();
+            index.add(requesters[i], "Player" + i);
+        }
+
+        snapshot = publish();
+    }
+
+    @Benchmark
+    public Suggestions typing() {
+        UUID requester = requesters[(cursor / PREFIXES.length) % players];
+        SuggestionsBuilder builder = new SuggestionsBuilder(PREFIXES[cursor++ % PREFIXES.length], 0);
+        snapshot.suggestAllowed(requester, builder);
+        return builder.build();
+    }
+
+    @Benchmark
+    public SuggestionSnapshot publish() {
+        SuggestionSnapshot.Builder builder = new SuggestionSnapshot.Builder();
+        index.copyTo(builder);
+        return builder.build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.thatmg393.bettertpa4fabric.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.thatmg393.bettertpa4fabric.tpa.tickable.DefaultTickableTaskProcessor;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickableTaskProcessorBenchmark {
+    @Param({ "100", "1000", "10000" })
+    public int liveTasks;
+
+    /** Polling tasks run onTick() every tick like a countdown, sleeping ones only when they finish. */
+    @Param({ "true", "false" })
+    public boolean polling;
+
+    private DefaultTickableTaskProcessor processor;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        processor = new DefaultTickableTaskProcessor();
+        for (int i = 0; i < liveTasks; i++) {
+            // spread the finish ticks out so the wheel sees a steady trickle of expiries
+            processor.putTask(new RepeatingTask(20 + (i % 200), polling));
+        }
+    }
+
+    @Benchmark
+    public int doTick() {
+        processor.doTick();
+        return processor.getTaskCount();
+    }
+
+    private static final class RepeatingTask extends TickableTask {
+        private final boolean polling;
+        private long finishes;
+
+        RepeatingTask(long tickDuration, boolean polling) {
+            super(tickDuration);
+            this.polling = polling;
+        }
+
+        @Override
+        protected TickResult onTick() {
+            return TickResult.REPEAT;
+        }
+
+        @Override
+        public long getWakeInterval() {
+            return polling ? 1 : getTickDuration();
+        }
+
+        @Override
+        protected void onFinish() {
+            finishes++;
+        }
+    }
+}
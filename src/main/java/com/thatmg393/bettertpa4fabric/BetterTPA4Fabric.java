@@ -6,32 +6,58 @@ import static net.minecraft.server.command.CommandManager.literal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.mojang.brigadier.Command;
 import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
+import com.thatmg393.bettertpa4fabric.bench.LoadGenerator;
 import com.thatmg393.bettertpa4fabric.command.argument.TPAArgumentType;
+import com.thatmg393.bettertpa4fabric.config.ConfigCommand;
+import com.thatmg393.bettertpa4fabric.config.ConfigSnapshot;
+import com.thatmg393.bettertpa4fabric.config.ConfigWatcher;
 import com.thatmg393.bettertpa4fabric.config.ModConfigManager;
-import com.thatmg393.bettertpa4fabric.config.data.ModConfigData;
+import com.thatmg393.bettertpa4fabric.metrics.Counter;
+import com.thatmg393.bettertpa4fabric.metrics.TPAMetrics;
 import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+import com.thatmg393.bettertpa4fabric.utils.LocaleTables;
 import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
 
 import net.fabricmc.api.DedicatedServerModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.server.command.ServerCommandSource;
 
 public class BetterTPA4Fabric implements DedicatedServerModInitializer {
     public static final String MOD_ID = "bettertpa4fabric";
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
-    public static final ModConfigData CONFIG = ModConfigManager.loadOrGetConfig();
+    private static final ConfigWatcher CONFIG_WATCHER = new ConfigWatcher(ModConfigManager.CONFIG_PATH.toPath());
+
+    /** The config in effect right now. Don't hold on to it, it's replaced whenever the file is reloaded. */
+    public static ConfigSnapshot config() {
+        return ModConfigManager.snapshot();
+    }
 
     @Override
     public void onInitializeServer() {
         LOGGER.info("xin, here i am!");
+        ModConfigManager.loadOrGetConfig();
+        CONFIG_WATCHER.start();
         TeleportManager.INSTANCE.init();
+        LoadGenerator.INSTANCE.init();
         LOGGER.info("if 1 + 2 is 3 then 2 + 1 is 2");
         LOGGER.info("Using BetterTPA4Fabric v" + FabricLoader.getInstance().getModContainer(MOD_ID).get().getMetadata().getVersion().getFriendlyString());
 
+        LocaleTables.load();
         registerCommands();
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            CONFIG_WATCHER.close();
+            ModConfigManager.close();
+        });
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> {
+            MCTextUtils.reloadTemplates();
+            LocaleTables.load();
+        });
     }
 
     private void registerCommands() {
@@ -42,10 +68,10 @@ public class BetterTPA4Fabric implements DedicatedServerModInitializer {
                 .then(
                     argument("to", StringArgumentType.word())
                     .suggests((ctx, builder) -> TPAArgumentType.ALLOWED_PLAYERS.listSuggestions(ctx, builder))
-                    .executes(ctx -> TeleportManager.INSTANCE.teleportTo(
+                    .executes(timed("tpa", ctx -> TeleportManager.INSTANCE.teleportTo(
                         ctx.getSource().getPlayer(),
                         TPAArgumentType.ALLOWED_PLAYERS.resolve(ctx, "to")
-                    ))
+                    )))
                 )
             );
 
@@ -55,17 +81,17 @@ public class BetterTPA4Fabric implements DedicatedServerModInitializer {
                 .then(
                     argument("who", StringArgumentType.word())
                     .suggests((ctx, builder) -> TPAArgumentType.ALLOWED_PLAYERS.listSuggestions(ctx, builder))
-                    .executes(ctx -> TeleportManager.INSTANCE.teleportHere(
+                    .executes(timed("tpahere", ctx -> TeleportManager.INSTANCE.teleportHere(
                         ctx.getSource().getPlayer(),
                         TPAArgumentType.ALLOWED_PLAYERS.resolve(ctx, "who")
-                    ))
+                    )))
                 )
             );
 
             dispatcher.register(
                 literal("tpaback")
                 .requires(ServerCommandSource::isExecutedByPlayer)
-                .executes(ctx -> TeleportManager.INSTANCE.teleportBack(ctx.getSource().getPlayer()))
+                .executes(timed("tpaback", ctx -> TeleportManager.INSTANCE.teleportBack(ctx.getSource().getPlayer())))
             );
 
             dispatcher.register(
@@ -74,12 +100,12 @@ public class BetterTPA4Fabric implements DedicatedServerModInitializer {
                 .then(
                     argument("from", StringArgumentType.word())
                     .suggests((ctx, builder) -> TPAArgumentType.INCOMING_REQUESTS.listSuggestions(ctx, builder))
-                    .executes(ctx -> TeleportManager.INSTANCE.acceptTeleport(
+                    .executes(timed("tpaaccept", ctx -> TeleportManager.INSTANCE.acceptTeleport(
                         ctx.getSource().getPlayer(),
                         TPAArgumentType.INCOMING_REQUESTS.resolve(ctx, "from")
-                    ))
+                    )))
                 )
-                .executes(ctx -> TeleportManager.INSTANCE.acceptTeleport(ctx.getSource().getPlayer(), null))
+                .executes(timed("tpaaccept", ctx -> TeleportManager.INSTANCE.acceptTeleport(ctx.getSource().getPlayer(), null)))
             );
 
             dispatcher.register(
@@ -88,12 +114,12 @@ public class BetterTPA4Fabric implements DedicatedServerModInitializer {
                 .then(
                     argument("from", StringArgumentType.word())
                     .suggests((ctx, builder) -> TPAArgumentType.INCOMING_REQUESTS.listSuggestions(ctx, builder))
-                    .executes(ctx -> TeleportManager.INSTANCE.denyTeleport(
+                    .executes(timed("tpadeny", ctx -> TeleportManager.INSTANCE.denyTeleport(
                         ctx.getSource().getPlayer(),
                         TPAArgumentType.INCOMING_REQUESTS.resolve(ctx, "from")
-                    ))
+                    )))
                 )
-                .executes(ctx -> TeleportManager.INSTANCE.denyTeleport(ctx.getSource().getPlayer(), null))
+                .executes(timed("tpadeny", ctx -> TeleportManager.INSTANCE.denyTeleport(ctx.getSource().getPlayer(), null)))
             );
 
             dispatcher.register(
@@ -102,10 +128,10 @@ public class BetterTPA4Fabric implements DedicatedServerModInitializer {
                 .then(
                     argument("to", StringArgumentType.word())
                     .suggests((ctx, builder) -> TPAArgumentType.OUTGOING_REQUESTS.listSuggestions(ctx, builder))
-                    .executes(ctx -> TeleportManager.INSTANCE.cancelTeleport(
+                    .executes(timed("tpacancel", ctx -> TeleportManager.INSTANCE.cancelTeleport(
                         ctx.getSource().getPlayer(),
                         TPAArgumentType.OUTGOING_REQUESTS.resolve(ctx, "to")
-                    ))
+                    )))
                 )
             );
 
@@ -114,9 +140,9 @@ public class BetterTPA4Fabric implements DedicatedServerModInitializer {
 				.requires(ServerCommandSource::isExecutedByPlayer)
 				.then(
 					argument("isAllowed", BoolArgumentType.bool())
-					.executes(ctx -> TeleportManager.INSTANCE.allowTeleport(ctx.getSource().getPlayer(), BoolArgumentType.getBool(ctx, "isAllowed")))
+					.executes(timed("tpaallow", ctx -> TeleportManager.INSTANCE.allowTeleport(ctx.getSource().getPlayer(), BoolArgumentType.getBool(ctx, "isAllowed"))))
 				)
-				.executes(ctx -> TeleportManager.INSTANCE.allowTeleport(ctx.getSource().getPlayer(), null))
+				.executes(timed("tpaallow", ctx -> TeleportManager.INSTANCE.allowTeleport(ctx.getSource().getPlayer(), null)))
 			);
 
             dispatcher.register(
@@ -138,19 +164,70 @@ public class BetterTPA4Fabric implements DedicatedServerModInitializer {
                 })
             );
 
-			/*
+            dispatcher.register(
+                literal("tpabench")
+                .requires(src -> src.hasPermissionLevel(4))
+                .then(
+                    literal("start")
+                    .then(
+                        argument("players", IntegerArgumentType.integer(2, 1000))
+                        .then(
+                            argument("actionsPerTick", IntegerArgumentType.integer(1, 1000))
+                            .executes(ctx -> LoadGenerator.INSTANCE.start(
+                                ctx.getSource(),
+                                IntegerArgumentType.getInteger(ctx, "players"),
+                                IntegerArgumentType.getInteger(ctx, "actionsPerTick")
+                            ))
+                        )
+                    )
+                )
+                .then(literal("report").executes(ctx -> LoadGenerator.INSTANCE.report(ctx.getSource())))
+                .then(literal("stop").executes(ctx -> LoadGenerator.INSTANCE.stop(ctx.getSource())))
+            );
+
+            dispatcher.register(
+                literal("tpastats")
+                .requires(src -> src.hasPermissionLevel(4))
+                .executes(ctx -> {
+                    for (String line : TPAMetrics.INSTANCE.getRegistry().snapshot().summarize()) {
+                        ctx.getSource().sendMessage(MCTextUtils.textOf(line));
+                    }
+                    return 1;
+                })
+            );
+
 			dispatcher.register(
 				literal("tpaconfig")
 				.requires(src -> src.hasPermissionLevel(4))
 				.then(
-					argument("key", StringArgumentType.string())
+					argument("key", StringArgumentType.word())
+					.suggests(ConfigCommand::suggestKeys)
 					.then(
-						argument("value", IntegerArgumentType.integer()) // TODO: Replace IntegerArgumentType to AnyArgumentType
-						.executes(ctx -> 1)
+						argument("value", StringArgumentType.greedyString())
+						.suggests(ConfigCommand::suggestValues)
+						.executes(ctx -> ConfigCommand.set(
+							ctx.getSource(),
+							StringArgumentType.getString(ctx, "key"),
+							StringArgumentType.getString(ctx, "value")
+						))
 					)
+					.executes(ctx -> ConfigCommand.show(ctx.getSource(), StringArgumentType.getString(ctx, "key")))
 				)
 			);
-			*/
 		});
 	}
+
+    /** Counts and times a player command for {@link TPAMetrics}. */
+    private static Command<ServerCommandSource> timed(String name, Command<ServerCommandSource> command) {
+        Counter counter = TPAMetrics.INSTANCE.command(name);
+        return ctx -> {
+            long start = System.nanoTime();
+            try {
+                return command.run(ctx);
+            } finally {
+                counter.inc();
+                TPAMetrics.INSTANCE.commandDuration.recordSince(start);
+            }
+        };
+    }
 }
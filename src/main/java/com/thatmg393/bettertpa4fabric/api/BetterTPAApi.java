@@ -0,0 +1,90 @@
+package com.thatmg393.bettertpa4fabric.api;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+import com.thatmg393.bettertpa4fabric.tpa.data.PlayerData;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * Entry point for other mods. Everything here must be called on the server
+ * thread; to observe or veto teleports without calling in, see {@link TPAEvents}.
+ */
+public final class BetterTPAApi {
+    private BetterTPAApi() { }
+
+    /**
+     * Sends a /tpa request from {@code sender} to {@code receiver}, exactly as if
+     * the sender had typed it. The stage completes with how the request ended
+     * ({@link TeleportTask.Result#SUCCESS} once the sender has been moved), or
+     * fails with a {@link RequestRejectedException} if it couldn't be sent.
+     */
+    public static CompletionStage<TeleportTask.Result> requestTeleport(ServerPlayerEntity sender, ServerPlayerEntity receiver) {
+        return send(sender, receiver, false);
+    }
+
+    /** Like {@link #requestTeleport}, but asks {@code receiver} to come to {@code sender} (/tpahere). */
+    public static CompletionStage<TeleportTask.Result> requestTeleportHere(ServerPlayerEntity sender, ServerPlayerEntity receiver) {
+        return send(sender, receiver, true);
+    }
+
+    /** Requests waiting for {@code receiver} to answer, oldest first. */
+    public static List<TeleportRequest> getIncomingRequests(UUID receiver) {
+        PlayerData data = TeleportManager.INSTANCE.findPlayerData(receiver);
+        if (data == null || data.teleportRequests.isEmpty()) return List.of();
+
+        ObjectArrayList<TeleportRequest> requests = new ObjectArrayList<>(data.teleportRequests.size());
+        for (BaseRequest request : data.teleportRequests.values()) {
+            if (!request.isExpired()) requests.add(request);
+        }
+        return List.copyOf(requests);
+    }
+
+    /** Requests {@code sender} sent that are still waiting for an answer. */
+    public static List<TeleportRequest> getOutgoingRequests(UUID sender) {
+        ObjectArrayList<TeleportRequest> requests = new ObjectArrayList<>();
+        for (UUID receiver : TeleportManager.INSTANCE.getOutgoingRequestTargets(sender)) {
+            TeleportRequest request = getPendingRequest(sender, receiver);
+            if (request != null) requests.add(request);
+        }
+        return List.copyOf(requests);
+    }
+
+    /** The request {@code sender} has waiting on {@code receiver}, if any. */
+    public static @Nullable TeleportRequest getPendingRequest(UUID sender, UUID receiver) {
+        PlayerData data = TeleportManager.INSTANCE.findPlayerData(receiver);
+        if (data == null) return null;
+
+        BaseRequest request = data.teleportRequests.findByKey(sender);
+        return request != null && !request.isExpired() ? request : null;
+    }
+
+    /** Whether {@code player} is in a teleport countdown, either as the one moving or as the destination. */
+    public static boolean isTeleporting(UUID player) {
+        return TeleportManager.INSTANCE.isTeleportingLocked(player);
+    }
+
+    /** Whether {@code player} is online and accepting requests (see /tpaallow). */
+    public static boolean isAcceptingRequests(UUID player) {
+        return TeleportManager.INSTANCE.isAcceptingRequests(player);
+    }
+
+    private static CompletionStage<TeleportTask.Result> send(ServerPlayerEntity sender, ServerPlayerEntity receiver, boolean here) {
+        BaseRequest request = TeleportManager.INSTANCE.sendRequest(sender, receiver, here);
+        if (request == null) {
+            return CompletableFuture.failedStage(new RequestRejectedException(
+                "Request from " + sender.getNameForScoreboard() + " to " + receiver.getNameForScoreboard() + " was turned away"
+            ));
+        }
+        return request.getOutcome();
+    }
+}
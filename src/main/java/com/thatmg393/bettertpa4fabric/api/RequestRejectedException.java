@@ -0,0 +1,12 @@
+package com.thatmg393.bettertpa4fabric.api;
+
+/**
+ * A request made through {@link BetterTPAApi} was turned away before it was
+ * sent, e.g. because of the sender's cooldown or the receiver's settings.
+ * The sender has already been told why in chat.
+ */
+public class RequestRejectedException extends RuntimeException {
+    public RequestRejectedException(String message) {
+        super(message);
+    }
+}
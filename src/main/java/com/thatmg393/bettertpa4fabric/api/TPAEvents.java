@@ -0,0 +1,100 @@
+package com.thatmg393.bettertpa4fabric.api;
+
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/**
+ * Hooks for other mods to observe or veto teleports. Every event is fired on
+ * the server thread; one nobody listens to costs a call to an empty lambda.
+ */
+public final class TPAEvents {
+    /** A player sent a /tpa or /tpahere request, it is now waiting for an answer. */
+    public static final Event<RequestCreated> REQUEST_CREATED = EventFactory.createArrayBacked(
+        RequestCreated.class,
+        request -> { },
+        listeners -> request -> {
+            for (RequestCreated listener : listeners) listener.onRequestCreated(request);
+        }
+    );
+
+    /**
+     * A request is about to be accepted. Returning {@code false} stops it; the
+     * request stays pending and the accepting player is told it can't be accepted right now.
+     */
+    public static final Event<AllowAccept> ALLOW_ACCEPT = EventFactory.createArrayBacked(
+        AllowAccept.class,
+        (request, accepter) -> true,
+        listeners -> (request, accepter) -> {
+            for (AllowAccept listener : listeners) {
+                if (!listener.allowAccept(request, accepter)) return false;
+            }
+            return true;
+        }
+    );
+
+    /**
+     * A countdown ended without a teleport, because a player moved, died or
+     * left, or because {@link #ALLOW_TELEPORT} blocked it. Not fired when a move only restarts it.
+     */
+    public static final Event<CountdownCancelled> COUNTDOWN_CANCELLED = EventFactory.createArrayBacked(
+        CountdownCancelled.class,
+        (request, result) -> { },
+        listeners -> (request, result) -> {
+            for (CountdownCancelled listener : listeners) listener.onCountdownCancelled(request, result);
+        }
+    );
+
+    /**
+     * A countdown ran out and the player is about to be teleported. Returning
+     * {@code false} blocks it, ending the request with {@link TeleportTask.Result#BLOCKED}.
+     */
+    public static final Event<AllowTeleport> ALLOW_TELEPORT = EventFactory.createArrayBacked(
+        AllowTeleport.class,
+        request -> true,
+        listeners -> request -> {
+            for (AllowTeleport listener : listeners) {
+                if (!listener.allowTeleport(request)) return false;
+            }
+            return true;
+        }
+    );
+
+    /** The teleporting player was moved to their destination. */
+    public static final Event<AfterTeleport> AFTER_TELEPORT = EventFactory.createArrayBacked(
+        AfterTeleport.class,
+        request -> { },
+        listeners -> request -> {
+            for (AfterTeleport listener : listeners) listener.afterTeleport(request);
+        }
+    );
+
+    private TPAEvents() { }
+
+    @FunctionalInterface
+    public interface RequestCreated {
+        void onRequestCreated(TeleportRequest request);
+    }
+
+    @FunctionalInterface
+    public interface AllowAccept {
+        boolean allowAccept(TeleportRequest request, ServerPlayerEntity accepter);
+    }
+
+    @FunctionalInterface
+    public interface CountdownCancelled {
+        void onCountdownCancelled(TeleportRequest request, TeleportTask.Result result);
+    }
+
+    @FunctionalInterface
+    public interface AllowTeleport {
+        boolean allowTeleport(TeleportRequest request);
+    }
+
+    @FunctionalInterface
+    public interface AfterTeleport {
+        void afterTeleport(TeleportRequest request);
+    }
+}
@@ -0,0 +1,30 @@
+package com.thatmg393.bettertpa4fabric.api;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+
+/** What integrations get to see of a request. Only valid on the server thread. */
+public interface TeleportRequest {
+    /** The player who sent the request (or, for /tpaback, asked to go back). */
+    ServerPlayerEntity getRequester();
+
+    /** The player this request was sent to, or {@code null} if it targets a position. */
+    @Nullable ServerPlayerEntity getTargetPlayer();
+
+    /** The player that gets moved once the countdown runs out. */
+    ServerPlayerEntity getTeleportingPlayer();
+
+    /** Where {@link #getTeleportingPlayer()} ends up. */
+    TeleportTarget getDestination();
+
+    /** When the request was sent, in epoch millis. */
+    long getCreatedAt();
+
+    /** When the request expires if nobody answers it, in epoch millis. */
+    long getExpiresAt();
+
+    boolean isExpired();
+}
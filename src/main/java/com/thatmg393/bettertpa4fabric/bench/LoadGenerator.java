@@ -0,0 +1,178 @@
+package com.thatmg393.bettertpa4fabric.bench;
+
+import java.util.Random;
+import java.util.UUID;
+
+import com.mojang.authlib.GameProfile;
+import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+
+/**
+ * Synthetic load for staging servers: a crowd of {@link FakePlayer}s hammering
+ * the same TeleportManager entry points the commands use, while the mod's
+ * tick handler is profiled.
+ */
+public class LoadGenerator {
+    public static final LoadGenerator INSTANCE = new LoadGenerator();
+
+    private static final int SAMPLE_TICKS = 20 * 60;
+    private static final int SPAWN_RADIUS = 2000;
+
+    private final ObjectArrayList<FakePlayer> online = new ObjectArrayList<>();
+    private final ObjectArrayList<FakePlayer> offline = new ObjectArrayList<>();
+    private final Random random = new Random();
+
+    private final TickProfiler tickProfiler = new TickProfiler(SAMPLE_TICKS);
+    private final TickProfiler driverProfiler = new TickProfiler(SAMPLE_TICKS);
+
+    private int actionsPerTick;
+    private boolean running;
+
+    public void init() {
+        ServerTickEvents.START_SERVER_TICK.register(this::tick);
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> stopQuietly());
+    }
+
+    public int start(ServerCommandSource source, int playerCount, int actionsPerTick) {
+        if (running) {
+            source.sendMessage(MCTextUtils.textOf("A benchmark is already running, stop it first."));
+            return 0;
+        }
+
+        ServerWorld world = source.getServer().getOverworld();
+        for (int i = 0; i < playerCount; i++) {
+            String name = "tpabench_" + i;
+            FakePlayer player = FakePlayer.get(world, new GameProfile(UUID.nameUUIDFromBytes(name.getBytes()), name));
+            player.refreshPositionAndAngles(
+                random.nextInt(SPAWN_RADIUS * 2) - SPAWN_RADIUS, 100,
+                random.nextInt(SPAWN_RADIUS * 2) - SPAWN_RADIUS,
+                0, 0
+            );
+
+            online.add(player);
+            TeleportManager.INSTANCE.onPlayerJoin(player);
+        }
+
+        this.actionsPerTick = actionsPerTick;
+        this.running = true;
+
+        tickProfiler.reset();
+        driverProfiler.reset();
+        TeleportManager.INSTANCE.setTickProfiler(tickProfiler);
+
+        source.sendMessage(MCTextUtils.textOf("Started benchmark with {} fake players, {} actions per tick.", playerCount, actionsPerTick));
+        return 1;
+    }
+
+    public int stop(ServerCommandSource source) {
+        if (!running) {
+            source.sendMessage(MCTextUtils.textOf("No benchmark is running."));
+            return 0;
+        }
+
+        report(source);
+        stopQuietly();
+        source.sendMessage(MCTextUtils.textOf("Benchmark stopped."));
+        return 1;
+    }
+
+    public int report(ServerCommandSource source) {
+        if (!running) {
+            source.sendMessage(MCTextUtils.textOf("No benchmark is running."));
+            return 0;
+        }
+
+        source.sendMessage(MCTextUtils.textOf("Fake players: {} online, {} offline", online.size(), offline.size()));
+        source.sendMessage(MCTextUtils.textOf("Resident player data: {}", TeleportManager.INSTANCE.getResidentPlayerDataCount()));
+        source.sendMessage(describe("Tick handler", tickProfiler.report()));
+        source.sendMessage(describe("Command entry points", driverProfiler.report()));
+        return 1;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void tick(MinecraftServer server) {
+        if (!running || online.size() < 2) return;
+
+        driverProfiler.begin();
+        for (int i = 0; i < actionsPerTick; i++) {
+            doRandomAction();
+        }
+        driverProfiler.end();
+    }
+
+    private void doRandomAction() {
+        FakePlayer self = pick(online);
+        FakePlayer other = pick(online);
+
+        int roll = random.nextInt(100);
+        if (roll < 30) {
+            TeleportManager.INSTANCE.teleportTo(self, other);
+        } else if (roll < 50) {
+            TeleportManager.INSTANCE.teleportHere(self, other);
+        } else if (roll < 65) {
+            TeleportManager.INSTANCE.acceptTeleport(self, random.nextBoolean() ? null : other);
+        } else if (roll < 75) {
+            TeleportManager.INSTANCE.denyTeleport(self, random.nextBoolean() ? null : other);
+        } else if (roll < 85) {
+            TeleportManager.INSTANCE.cancelTeleport(self, other);
+        } else if (roll < 87) {
+            disconnect(self);
+        } else if (roll < 89) {
+            reconnect();
+        }
+        // everything else is left alone so some requests run into their expiry
+    }
+
+    private void disconnect(FakePlayer player) {
+        online.remove(player);
+        offline.add(player);
+        TeleportManager.INSTANCE.onPlayerLeave(player);
+    }
+
+    private void reconnect() {
+        if (offline.isEmpty()) return;
+
+        FakePlayer player = offline.remove(random.nextInt(offline.size()));
+        online.add(player);
+        TeleportManager.INSTANCE.onPlayerJoin(player);
+    }
+
+    private void stopQuietly() {
+        if (!running) return;
+
+        for (FakePlayer player : online) {
+            TeleportManager.INSTANCE.onPlayerLeave(player);
+        }
+
+        online.clear();
+        offline.clear();
+        running = false;
+        TeleportManager.INSTANCE.setTickProfiler(null);
+    }
+
+    private FakePlayer pick(ObjectArrayList<FakePlayer> players) {
+        return players.get(random.nextInt(players.size()));
+    }
+
+    private static Text describe(String section, TickProfiler.Report report) {
+        return MCTextUtils.textOf(
+            "{}: avg {} µs, p99 {} µs, max {} µs, {} over {} ticks",
+            section,
+            report.averageNanos() / 1000, report.p99Nanos() / 1000, report.maxNanos() / 1000,
+            report.allocationTracked() ? report.averageAllocatedBytes() + " B/tick allocated" : "allocation not tracked",
+            report.samples()
+        );
+    }
+}
@@ -0,0 +1,77 @@
+package com.thatmg393.bettertpa4fabric.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Records how long (and how many bytes) each sampled section took, keeping
+ * the last {@code capacity} samples around for percentiles.
+ */
+public class TickProfiler {
+    private static final com.sun.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean()
+        instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported() ? bean : null;
+
+    private final long[] nanos;
+    private final long[] bytes;
+
+    private int count = 0;
+    private int next = 0;
+
+    private long startNanos;
+    private long startBytes;
+
+    public TickProfiler(int capacity) {
+        this.nanos = new long[capacity];
+        this.bytes = new long[capacity];
+    }
+
+    public void begin() {
+        startBytes = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    public void end() {
+        long elapsed = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes() - startBytes;
+
+        nanos[next] = elapsed;
+        bytes[next] = allocated;
+        next = (next + 1) % nanos.length;
+        if (count < nanos.length) count++;
+    }
+
+    public void reset() {
+        count = 0;
+        next = 0;
+    }
+
+    public Report report() {
+        if (count == 0) return new Report(0, 0, 0, 0, 0, THREADS != null);
+
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < count; i++) {
+            totalNanos += nanos[i];
+            totalBytes += bytes[i];
+        }
+
+        int p99 = Math.min(count - 1, (int) Math.ceil(count * 0.99) - 1);
+        return new Report(count, totalNanos / count, sorted[p99], sorted[count - 1], totalBytes / count, THREADS != null);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    public record Report(
+        int samples,
+        long averageNanos,
+        long p99Nanos,
+        long maxNanos,
+        long averageAllocatedBytes,
+        boolean allocationTracked
+    ) { }
+}
@@ -1,14 +1,19 @@
 package com.thatmg393.bettertpa4fabric.command.argument;
 
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
 import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.thatmg393.bettertpa4fabric.command.suggestion.SuggestionSnapshot;
 import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
 import com.thatmg393.bettertpa4fabric.tpa.data.PlayerData;
+import com.thatmg393.bettertpa4fabric.utils.LangKeys;
 import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
 
 import net.minecraft.server.command.ServerCommandSource;
@@ -29,6 +34,12 @@ public class TPAArgumentType {
     public static final TPAArgumentType OUTGOING_REQUESTS = new TPAArgumentType(Mode.OUTGOING_REQUESTS);
     public static final TPAArgumentType ALLOWED_PLAYERS = new TPAArgumentType(Mode.ALLOWED_PLAYERS);
 
+    private static final ExecutorService SUGGESTION_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BetterTPA4Fabric Suggestions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final Mode mode;
 
     private TPAArgumentType(Mode mode) {
@@ -46,43 +57,17 @@ public class TPAArgumentType {
         ServerPlayerEntity self = source.getPlayer();
         if (self == null) return Suggestions.empty();
 
-        switch (mode) {
-            case INCOMING_REQUESTS -> {
-                PlayerData data = TeleportManager.INSTANCE.getPlayerData(self.getUuid());
-                data.teleportRequests.entrySet().stream()
-                    .filter(e -> !e.getValue().isExpired())
-                    .map(e -> e.getValue().getRequester())
-                    .filter(p -> p.networkHandler.isConnectionOpen())
-                    .map(ServerPlayerEntity::getNameForScoreboard)
-                    .filter(name -> name.startsWith(builder.getRemaining()))
-                    .forEach(builder::suggest);
-            }
-
-            case OUTGOING_REQUESTS -> {
-                TeleportManager.INSTANCE.streamPlayerDatas()
-                    .filter(e -> !e.getKey().equals(self.getUuid()))
-                    .filter(e -> e.getValue().teleportRequests.containsKey(self.getUuid()))
-                    .map(e -> source.getServer().getPlayerManager().getPlayer(e.getKey()))
-                    .filter(p -> p != null)
-                    .map(ServerPlayerEntity::getNameForScoreboard)
-                    .filter(name -> name.startsWith(builder.getRemaining()))
-                    .forEach(builder::suggest);
+        // served from the published snapshot on our own thread, so bursts of tab presses stay off the tick
+        UUID selfUuid = self.getUuid();
+        SuggestionSnapshot snapshot = TeleportManager.INSTANCE.getSuggestions();
+        return CompletableFuture.supplyAsync(() -> {
+            switch (mode) {
+                case INCOMING_REQUESTS -> snapshot.suggestIncoming(selfUuid, System.currentTimeMillis(), builder);
+                case OUTGOING_REQUESTS -> snapshot.suggestOutgoing(selfUuid, builder);
+                case ALLOWED_PLAYERS -> snapshot.suggestAllowed(selfUuid, builder);
             }
-
-            case ALLOWED_PLAYERS -> {
-                TeleportManager.INSTANCE.streamPlayerDatas()
-                    .filter(e -> !e.getKey().equals(self.getUuid()))
-                    .filter(e -> e.getValue().allowTeleportRequests)
-                    .filter(e -> !e.getValue().teleportRequests.containsKey(self.getUuid()))
-                    .map(e -> source.getServer().getPlayerManager().getPlayer(e.getKey()))
-                    .filter(p -> p != null)
-                    .map(ServerPlayerEntity::getNameForScoreboard)
-                    .filter(name -> name.startsWith(builder.getRemaining())) 
-                    .forEach(builder::suggest);
-            }
-        }
-
-        return builder.buildFuture();
+            return builder.build();
+        }, SUGGESTION_EXECUTOR);
     }
 
     /**
@@ -98,7 +83,7 @@ public class TPAArgumentType {
 
         if (player == null) {
             throw new SimpleCommandExceptionType(
-                MCTextUtils.fromLang("bettertpa4fabric.message.error.target_offline", name)
+                MCTextUtils.fromLang(ctx.getSource().getPlayer(), LangKeys.ERROR_TARGET_OFFLINE, name)
             ).create();
         }
 
@@ -109,16 +94,15 @@ public class TPAArgumentType {
                 
                 if (!selfData.teleportRequests.containsKey(player.getUuid())) {
                     throw new SimpleCommandExceptionType(
-                        MCTextUtils.fromLang("bettertpa4fabric.message.error.no_request_from_player", name)
+                        MCTextUtils.fromLang(ctx.getSource().getPlayer(), LangKeys.ERROR_NO_REQUEST_FROM_PLAYER, name)
                     ).create();
                 }
             }
 
             case OUTGOING_REQUESTS -> {
-                PlayerData targetData = TeleportManager.INSTANCE.getPlayerData(player.getUuid());
-                if (!targetData.teleportRequests.containsKey(self.getUuid())) {
+                if (!TeleportManager.INSTANCE.hasOutgoingRequest(self.getUuid(), player.getUuid())) {
                     throw new SimpleCommandExceptionType(
-                        MCTextUtils.fromLang("bettertpa4fabric.message.error.no_request_to_player", name)
+                        MCTextUtils.fromLang(ctx.getSource().getPlayer(), LangKeys.ERROR_NO_REQUEST_TO_PLAYER, name)
                     ).create();
                 }
             }
@@ -126,13 +110,12 @@ public class TPAArgumentType {
             case ALLOWED_PLAYERS -> {
                 if (player.equals(self)) {
                     throw new SimpleCommandExceptionType(
-                        MCTextUtils.fromLang("bettertpa4fabric.message.error.tpa_to_self")
+                        MCTextUtils.fromLang(ctx.getSource().getPlayer(), LangKeys.ERROR_TPA_TO_SELF)
                     ).create();
                 }
-                PlayerData targetData = TeleportManager.INSTANCE.getPlayerData(player.getUuid());
-                if (!targetData.allowTeleportRequests) {
+                if (!TeleportManager.INSTANCE.isAcceptingRequests(player.getUuid())) {
                     throw new SimpleCommandExceptionType(
-                        MCTextUtils.fromLang("bettertpa4fabric.message.error.tpa_not_allowed")
+                        MCTextUtils.fromLang(ctx.getSource().getPlayer(), LangKeys.ERROR_TPA_NOT_ALLOWED)
                     ).create();
                 }
             }
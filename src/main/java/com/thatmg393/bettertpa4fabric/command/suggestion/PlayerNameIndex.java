@@ -0,0 +1,55 @@
+package com.thatmg393.bettertpa4fabric.command.suggestion;
+
+import java.util.UUID;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+/**
+ * Sorted name index of players accepting requests, kept on the server thread.
+ * Every change to it, or to anything suggestions are filtered on, bumps a
+ * version so {@link SuggestionSnapshot}s know when to be rebuilt.
+ */
+public class PlayerNameIndex {
+    private final Object2ObjectAVLTreeMap<String, UUID> uuidsByName = new Object2ObjectAVLTreeMap<>();
+    private final Object2ObjectOpenHashMap<UUID, String> namesByUuid = new Object2ObjectOpenHashMap<>();
+
+    private long version = 0;
+
+    public void add(UUID uuid, String name) {
+        String previous = namesByUuid.put(uuid, name);
+        if (previous != null) uuidsByName.remove(previous);
+
+        uuidsByName.put(name, uuid);
+        invalidate();
+    }
+
+    public void remove(UUID uuid) {
+        String name = namesByUuid.remove(uuid);
+        if (name != null) {
+            uuidsByName.remove(name);
+            invalidate();
+        }
+    }
+
+    public boolean contains(UUID uuid) {
+        return namesByUuid.containsKey(uuid);
+    }
+
+    /** Marks published suggestions stale, e.g. when something they were filtered on changed. */
+    public void invalidate() {
+        version++;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** Adds every indexed player to {@code builder}, in name order. */
+    public void copyTo(SuggestionSnapshot.Builder builder) {
+        for (Object2ObjectMap.Entry<String, UUID> entry : uuidsByName.object2ObjectEntrySet()) {
+            builder.allowed(entry.getKey(), entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.thatmg393.bettertpa4fabric.command.suggestion;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Everything tab completion needs, copied out of the live request state.
+ * It is never modified after {@link Builder#build()}, so once published it
+ * can be read from any thread without locking.
+ */
+public final class SuggestionSnapshot {
+    private static final String[] NO_NAMES = new String[0];
+
+    public static final SuggestionSnapshot EMPTY = new Builder().build();
+
+    // players accepting requests, sorted so a prefix is a contiguous range
+    private final String[] allowedNames;
+    private final UUID[] allowedUuids;
+    private final Object2ObjectOpenHashMap<UUID, Incoming> incoming;
+    private final Object2ObjectOpenHashMap<UUID, String[]> outgoing;
+
+    private SuggestionSnapshot(
+        String[] allowedNames, UUID[] allowedUuids,
+        Object2ObjectOpenHashMap<UUID, Incoming> incoming,
+        Object2ObjectOpenHashMap<UUID, String[]> outgoing
+    ) {
+        this.allowedNames = allowedNames;
+        this.allowedUuids = allowedUuids;
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+    }
+
+    /** Players accepting requests that {@code requester} hasn't sent one to yet, minus themselves. */
+    public void suggestAllowed(UUID requester, SuggestionsBuilder builder) {
+        String prefix = builder.getRemaining();
+        String[] alreadySent = outgoing.getOrDefault(requester, NO_NAMES);
+
+        int i = Arrays.binarySearch(allowedNames, prefix);
+        if (i < 0) i = -i - 1;
+
+        for (; i < allowedNames.length && allowedNames[i].startsWith(prefix); i++) {
+            if (allowedUuids[i].equals(requester) || contains(alreadySent, allowedNames[i])) continue;
+            builder.suggest(allowedNames[i]);
+        }
+    }
+
+    /** Players with a request to {@code receiver} that hadn't expired as of {@code now}. */
+    public void suggestIncoming(UUID receiver, long now, SuggestionsBuilder builder) {
+        Incoming requests = incoming.get(receiver);
+        if (requests == null) return;
+
+        String prefix = builder.getRemaining();
+        for (int i = 0; i < requests.names.length; i++) {
+            if (requests.expiresAt[i] >= now && requests.names[i].startsWith(prefix)) builder.suggest(requests.names[i]);
+        }
+    }
+
+    /** Players {@code sender} has a pending request to. */
+    public void suggestOutgoing(UUID sender, SuggestionsBuilder builder) {
+        String prefix = builder.getRemaining();
+        for (String name : outgoing.getOrDefault(sender, NO_NAMES)) {
+            if (name.startsWith(prefix)) builder.suggest(name);
+        }
+    }
+
+    private static boolean contains(String[] names, String name) {
+        for (String candidate : names) {
+            if (candidate.equals(name)) return true;
+        }
+        return false;
+    }
+
+    private record Incoming(String[] names, long[] expiresAt) { }
+
+    public static final class Builder {
+        private final ObjectArrayList<String> allowedNames = new ObjectArrayList<>();
+        private final ObjectArrayList<UUID> allowedUuids = new ObjectArrayList<>();
+        private final Object2ObjectOpenHashMap<UUID, ObjectArrayList<String>> incomingNames = new Object2ObjectOpenHashMap<>();
+        private final Object2ObjectOpenHashMap<UUID, LongArrayList> incomingExpiries = new Object2ObjectOpenHashMap<>();
+        private final Object2ObjectOpenHashMap<UUID, ObjectArrayList<String>> outgoingNames = new Object2ObjectOpenHashMap<>();
+
+        /** Adds a player accepting requests. Must be called in name order. */
+        public Builder allowed(String name, UUID uuid) {
+            allowedNames.add(name);
+            allowedUuids.add(uuid);
+            return this;
+        }
+
+        public Builder request(UUID sender, String senderName, UUID receiver, String receiverName, long expiresAt) {
+            incomingNames.computeIfAbsent(receiver, k -> new ObjectArrayList<>()).add(senderName);
+            incomingExpiries.computeIfAbsent(receiver, k -> new LongArrayList()).add(expiresAt);
+            outgoingNames.computeIfAbsent(sender, k -> new ObjectArrayList<>()).add(receiverName);
+            return this;
+        }
+
+        public SuggestionSnapshot build() {
+            Object2ObjectOpenHashMap<UUID, Incoming> incoming = new Object2ObjectOpenHashMap<>(incomingNames.size());
+            for (Object2ObjectMap.Entry<UUID, ObjectArrayList<String>> entry : incomingNames.object2ObjectEntrySet()) {
+                incoming.put(entry.getKey(), new Incoming(
+                    entry.getValue().toArray(NO_NAMES),
+                    incomingExpiries.get(entry.getKey()).toLongArray()
+                ));
+            }
+
+            Object2ObjectOpenHashMap<UUID, String[]> outgoing = new Object2ObjectOpenHashMap<>(outgoingNames.size());
+            for (Object2ObjectMap.Entry<UUID, ObjectArrayList<String>> entry : outgoingNames.object2ObjectEntrySet()) {
+                outgoing.put(entry.getKey(), entry.getValue().toArray(NO_NAMES));
+            }
+
+            return new SuggestionSnapshot(
+                allowedNames.toArray(NO_NAMES),
+                allowedUuids.toArray(new UUID[0]),
+                incoming, outgoing
+            );
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.thatmg393.bettertpa4fabric.config;
+
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
+
+import net.minecraft.server.command.ServerCommandSource;
+
+/** Backs {@code /tpaconfig}: shows and changes options while the server runs. */
+public final class ConfigCommand {
+    private ConfigCommand() { }
+
+    public static CompletableFuture<Suggestions> suggestKeys(CommandContext<ServerCommandSource> ctx, SuggestionsBuilder builder) {
+        String remaining = builder.getRemainingLowerCase();
+        for (ConfigField field : ConfigField.all()) {
+            if (field.isEditable() && field.getName().toLowerCase(Locale.ROOT).startsWith(remaining)) builder.suggest(field.getName());
+        }
+        return builder.buildFuture();
+    }
+
+    public static CompletableFuture<Suggestions> suggestValues(CommandContext<ServerCommandSource> ctx, SuggestionsBuilder builder) {
+        ConfigField field = ConfigField.get(ctx.getArgument("key", String.class));
+        if (field == null) return builder.buildFuture();
+
+        String remaining = builder.getRemainingLowerCase();
+        for (String value : field.getValueSuggestions()) {
+            if (value.toLowerCase(Locale.ROOT).startsWith(remaining)) builder.suggest(value);
+        }
+        return builder.buildFuture();
+    }
+
+    public static int show(ServerCommandSource source, String key) {
+        ConfigField field = ConfigField.get(key);
+        if (field == null) {
+            source.sendMessage(MCTextUtils.textOf("Unknown config option {}.", key));
+            return 0;
+        }
+
+        source.sendMessage(MCTextUtils.textOf("{} = {}", field.getName(), ModConfigManager.describe(field)));
+        if (field.getComment() != null) source.sendMessage(MCTextUtils.textOf(field.getComment()));
+        return 1;
+    }
+
+    public static int set(ServerCommandSource source, String key, String value) {
+        ConfigField field = ConfigField.get(key);
+        if (field == null) {
+            source.sendMessage(MCTextUtils.textOf("Unknown config option {}.", key));
+            return 0;
+        }
+
+        try {
+            ModConfigManager.set(field, value);
+        } catch (IllegalArgumentException e) {
+            source.sendMessage(MCTextUtils.textOf("Couldn't set {}: {}", field.getName(), e.getMessage()));
+            return 0;
+        }
+
+        BetterTPA4Fabric.LOGGER.info("{} set {} to {}", source.getName(), field.getName(), ModConfigManager.describe(field));
+        source.sendMessage(MCTextUtils.textOf("Set {} to {}.", field.getName(), ModConfigManager.describe(field)));
+        return 1;
+    }
+}
@@ -0,0 +1,163 @@
+package com.thatmg393.bettertpa4fabric.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.config.annotations.ConfigComment;
+import com.thatmg393.bettertpa4fabric.config.annotations.FileOnly;
+import com.thatmg393.bettertpa4fabric.config.data.ModConfigData;
+
+/**
+ * One option of {@link ModConfigData}, with its accessors and value parser
+ * looked up once at class init, so saving and {@code /tpaconfig} don't
+ * reflect over the class every time.
+ */
+public final class ConfigField {
+    private static final Map<String, ConfigField> FIELDS = createFields();
+    private static final List<ConfigField> ALL = Collections.unmodifiableList(new ArrayList<>(FIELDS.values()));
+
+    private final String name;
+    private final Class<?> type;
+    private final @Nullable String comment;
+    private final boolean editable;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final Function<String, Object> parser;
+    private final List<String> valueSuggestions;
+
+    private ConfigField(Field field, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        this.name = field.getName();
+        this.type = field.getType();
+
+        ConfigComment annotation = field.getAnnotation(ConfigComment.class);
+        this.comment = annotation != null ? annotation.value() : null;
+        this.editable = !field.isAnnotationPresent(FileOnly.class);
+
+        this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, ModConfigData.class));
+        this.setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, ModConfigData.class, Object.class));
+
+        this.parser = parserFor(type);
+        this.valueSuggestions = suggestionsFor(type);
+    }
+
+    /** Every option, in declaration order. */
+    public static List<ConfigField> all() {
+        return ALL;
+    }
+
+    public static @Nullable ConfigField get(String name) {
+        return FIELDS.get(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public @Nullable String getComment() {
+        return comment;
+    }
+
+    /** Whether {@code /tpaconfig} may change it. */
+    public boolean isEditable() {
+        return editable;
+    }
+
+    /** Values worth suggesting for this option, empty when anything goes. */
+    public List<String> getValueSuggestions() {
+        return valueSuggestions;
+    }
+
+    public Object get(ModConfigData data) {
+        try {
+            return (Object) getter.invokeExact(data);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to read config option " + name, e);
+        }
+    }
+
+    public void set(ModConfigData data, Object value) {
+        try {
+            setter.invokeExact(data, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to write config option " + name, e);
+        }
+    }
+
+    /** @throws IllegalArgumentException if {@code value} isn't valid for this option's type */
+    public Object parse(String value) {
+        return parser.apply(value.trim());
+    }
+
+    private static Map<String, ConfigField> createFields() {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Map<String, ConfigField> fields = new LinkedHashMap<>();
+
+        for (Field field : ModConfigData.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+
+            try {
+                fields.put(field.getName(), new ConfigField(field, lookup));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Config option " + field.getName() + " must be public", e);
+            }
+        }
+
+        return fields;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Function<String, Object> parserFor(Class<?> type) {
+        if (type == int.class) return value -> parseNumber(value, Integer::parseInt);
+        if (type == long.class) return value -> parseNumber(value, Long::parseLong);
+        if (type == String.class) return value -> value;
+
+        if (type == boolean.class) {
+            return value -> switch (value.toLowerCase(Locale.ROOT)) {
+                case "true" -> true;
+                case "false" -> false;
+                default -> throw new IllegalArgumentException("expected true or false, got " + value);
+            };
+        }
+
+        if (type.isEnum()) {
+            return value -> {
+                try {
+                    return Enum.valueOf((Class<? extends Enum>) type, value.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("expected one of " + suggestionsFor(type) + ", got " + value);
+                }
+            };
+        }
+
+        throw new IllegalStateException("Unsupported config option type " + type.getName());
+    }
+
+    private static List<String> suggestionsFor(Class<?> type) {
+        if (type == boolean.class) return List.of("true", "false");
+        if (!type.isEnum()) return List.of();
+
+        List<String> names = new ArrayList<>();
+        for (Object constant : type.getEnumConstants()) names.add(((Enum<?>) constant).name());
+        return List.copyOf(names);
+    }
+
+    private static Object parseNumber(String value, Function<String, Object> parser) {
+        try {
+            return parser.apply(value.replace("_", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("expected a whole number, got " + value);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.thatmg393.bettertpa4fabric.config;
+
+import com.thatmg393.bettertpa4fabric.config.data.CountdownDisplayMode;
+import com.thatmg393.bettertpa4fabric.config.data.ModConfigData;
+import com.thatmg393.bettertpa4fabric.config.data.RequestOverflowPolicy;
+
+/**
+ * Validated, read-only view of {@link ModConfigData} that the rest of the mod
+ * reads through {@link ModConfigManager#snapshot()}. Units are converted up
+ * front (seconds to millis or ticks) so hot paths don't redo it on every read.
+ * A reload swaps in a whole new snapshot, never a half updated one.
+ */
+public record ConfigSnapshot(
+    long expireMillis,
+    long teleportTicks,
+    boolean oneTimeTPABack,
+    boolean resetTimerOnMove,
+    int countdownMoveCheckInterval,
+    CountdownDisplayMode countdownDisplay,
+    long tickBudgetNanos,
+    String metricsExportFile,
+    int metricsExportInterval,
+    long cooldownMillis,
+    int cooldownBurst,
+    int requestLimit,
+    RequestOverflowPolicy requestOverflowPolicy,
+    int globalRequestLimit
+) {
+    /** @throws IllegalArgumentException naming the first option that is out of range */
+    public static ConfigSnapshot of(ModConfigData data) {
+        require(data.tpaExpireTime >= 1, "tpaExpireTime must be at least 1");
+        require(data.tpaTeleportTime >= 0, "tpaTeleportTime can't be negative");
+        require(data.countdownMoveCheckInterval >= 1, "countdownMoveCheckInterval must be at least 1");
+        require(data.countdownDisplay != null, "countdownDisplay must be CHAT, ACTION_BAR or BOSS_BAR");
+        require(data.tickBudgetNanos >= 0, "tickBudgetNanos can't be negative");
+        require(data.metricsExportInterval >= 1, "metricsExportInterval must be at least 1");
+        require(data.tpaCooldown >= 0, "tpaCooldown can't be negative");
+        require(data.tpaCooldownBurst >= 1, "tpaCooldownBurst must be at least 1");
+        require(data.tpaRequestLimit >= 1, "tpaRequestLimit must be at least 1");
+        require(data.requestOverflowPolicy != null, "requestOverflowPolicy must be REJECT_NEWEST, EVICT_OLDEST or EVICT_EXPIRED_FIRST");
+        require(data.globalRequestLimit >= 1, "globalRequestLimit must be at least 1");
+
+        return new ConfigSnapshot(
+            data.tpaExpireTime * 1000L,
+            data.tpaTeleportTime * 20L,
+            data.oneTimeTPABack,
+            data.resetTimerOnMove,
+            data.countdownMoveCheckInterval,
+            data.countdownDisplay,
+            data.tickBudgetNanos,
+            data.metricsExportFile == null ? "" : data.metricsExportFile.trim(),
+            data.metricsExportInterval,
+            data.tpaCooldown * 1000L,
+            data.tpaCooldownBurst,
+            data.tpaRequestLimit,
+            data.requestOverflowPolicy,
+            data.globalRequestLimit
+        );
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) throw new IllegalArgumentException(message);
+    }
+}
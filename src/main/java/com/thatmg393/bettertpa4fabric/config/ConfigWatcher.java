@@ -0,0 +1,86 @@
+package com.thatmg393.bettertpa4fabric.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+
+/**
+ * Reloads the config whenever its file changes on disk. Parsing and
+ * validation run on the watcher's own thread, the server only ever sees the
+ * finished {@link ConfigSnapshot}.
+ */
+public class ConfigWatcher {
+    // editors tend to write a file in several steps, wait for them to settle
+    private static final long SETTLE_MILLIS = 250;
+
+    private final Path file;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigWatcher(Path file) {
+        this.file = file.toAbsolutePath();
+    }
+
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            file.getParent().register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY
+            );
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.warn("Failed to watch the config for changes, it won't hot reload! {}", e.toString());
+            return;
+        }
+
+        thread = new Thread(this::run, "BetterTPA4Fabric Config Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void close() {
+        if (watchService == null) return;
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.warn(e.toString());
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                if (!touchesConfig(watchService.take())) continue;
+
+                // swallow the rest of this burst of writes
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    touchesConfig(key);
+                }
+
+                ModConfigManager.reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // closed on shutdown
+        }
+    }
+
+    private boolean touchesConfig(WatchKey key) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) touched = true;
+        }
+        key.reset();
+        return touched;
+    }
+}
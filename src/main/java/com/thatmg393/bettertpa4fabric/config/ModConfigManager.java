@@ -3,11 +3,17 @@ package com.thatmg393.bettertpa4fabric.config;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -15,7 +21,6 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
-import com.thatmg393.bettertpa4fabric.config.annotations.ConfigComment;
 import com.thatmg393.bettertpa4fabric.config.data.ModConfigData;
 
 import net.fabricmc.loader.api.FabricLoader;
@@ -28,10 +33,21 @@ public class ModConfigManager {
         ).toString()
     );
 
+    // how long /tpaconfig edits are collected before they're written out together
+    private static final long SAVE_DELAY_MILLIS = 1000;
+
     private static final ModConfigData defaultConfig = new ModConfigData();
     private static ModConfigData loadedConfig;
+    private static volatile ConfigSnapshot snapshot;
+
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BetterTPA4Fabric Config Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static boolean savePending;
 
-    public static ModConfigData loadOrGetConfig() {
+    public static synchronized ModConfigData loadOrGetConfig() {
         if (loadedConfig != null) return loadedConfig;
 
         try (BufferedReader bufferedReader = new BufferedReader(new FileReader(CONFIG_PATH))) {
@@ -54,18 +70,133 @@ public class ModConfigManager {
             saveConfig();
         }
 
+        try {
+            snapshot = ConfigSnapshot.of(loadedConfig);
+        } catch (IllegalArgumentException e) {
+            BetterTPA4Fabric.LOGGER.error("Invalid config, using the defaults until it's fixed! {}", e.getMessage());
+            snapshot = ConfigSnapshot.of(defaultConfig);
+        }
+
         return loadedConfig;
     }
 
+    /** The config currently in effect. Cheap enough to call on every use, and it should be, so reloads are picked up. */
+    public static ConfigSnapshot snapshot() {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
+            loadOrGetConfig();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * Re-reads the config file and publishes it if it's valid, keeping the
+     * current config otherwise. Called off-thread by {@link ConfigWatcher}.
+     */
+    public static synchronized void reload() {
+        // the file is behind on edits that haven't been written yet, the write will trigger another reload
+        if (savePending) return;
+
+        ModConfigData parsedConfig;
+        ConfigSnapshot parsedSnapshot;
+        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(CONFIG_PATH))) {
+            parsedConfig = GSON.fromJson(bufferedReader, ModConfigData.class);
+            if (parsedConfig == null) throw new JsonSyntaxException("empty file");
+            if (parsedConfig.configVersion != defaultConfig.configVersion) parsedConfig = mergeWithDefaults(parsedConfig, defaultConfig);
+
+            parsedSnapshot = ConfigSnapshot.of(parsedConfig);
+        } catch (IOException | JsonSyntaxException | IllegalArgumentException e) {
+            BetterTPA4Fabric.LOGGER.warn("Not reloading the config, keeping the current one! {}", e.getMessage());
+            return;
+        }
+
+        loadedConfig = parsedConfig;
+        if (parsedSnapshot.equals(snapshot)) return;
+
+        snapshot = parsedSnapshot;
+        BetterTPA4Fabric.LOGGER.info("Reloaded config");
+    }
+
     public static ModConfigData getDefaultConfig() {
         return defaultConfig;
     }
 
+    /**
+     * Changes one option and publishes the result right away. The file is
+     * written a moment later on a background thread, along with any other
+     * edits made in the meantime.
+     *
+     * @throws IllegalArgumentException if the value can't be parsed or is out of range; nothing changes then
+     */
+    public static synchronized ConfigSnapshot set(ConfigField field, String value) {
+        if (!field.isEditable()) throw new IllegalArgumentException(field.getName() + " can only be changed in the config file");
+
+        ModConfigData config = loadOrGetConfig();
+        Object previous = field.get(config);
+        field.set(config, field.parse(value));
+
+        try {
+            snapshot = ConfigSnapshot.of(config);
+        } catch (IllegalArgumentException e) {
+            field.set(config, previous);
+            throw e;
+        }
+
+        if (!savePending) {
+            savePending = true;
+            writer.schedule(ModConfigManager::savePending, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        return snapshot;
+    }
+
+    /** The value an option currently has in the config file's terms, for showing to players. */
+    public static synchronized String describe(ConfigField field) {
+        return GSON.toJson(field.get(loadOrGetConfig()));
+    }
+
     public static void saveConfig() {
-        try (FileWriter fileWriter = new FileWriter(CONFIG_PATH)) {
-            fileWriter.write(serializeWithComments(loadedConfig));
+        String content;
+        synchronized (ModConfigManager.class) {
+            content = serializeWithComments(loadedConfig);
+        }
+        write(content);
+    }
+
+    /** Writes out edits that are still waiting for their save, then stops the writer. */
+    public static void close() {
+        // a scheduled save still runs after shutdown, wait for it instead of racing it for the temp file
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(SAVE_DELAY_MILLIS * 5, TimeUnit.MILLISECONDS)) {
+                BetterTPA4Fabric.LOGGER.warn("Timed out waiting for the config to save");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void savePending() {
+        String content;
+        synchronized (ModConfigManager.class) {
+            if (!savePending) return;
+
+            savePending = false;
+            content = serializeWithComments(loadedConfig);
+        }
+        write(content);
+    }
+
+    private static void write(String content) {
+        // never leave a half written config behind, whatever happens mid-write
+        Path file = CONFIG_PATH.toPath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
-            BetterTPA4Fabric.LOGGER.error(e.toString());
+            BetterTPA4Fabric.LOGGER.error("Failed to save config! " + e.toString());
         }
     }
 
@@ -86,27 +217,24 @@ public class ModConfigManager {
     }
 
     private static String serializeWithComments(ModConfigData config) {
-        JsonObject json = GSON.toJsonTree(config).getAsJsonObject();
         StringBuilder sb = new StringBuilder("{\n");
-        Field[] fields = ModConfigData.class.getDeclaredFields();
+        List<ConfigField> fields = ConfigField.all();
 
-        for (int i = 0; i < fields.length; i++) {
-            Field field = fields[i];
-            ConfigComment comment = field.getAnnotation(ConfigComment.class);
+        for (int i = 0; i < fields.size(); i++) {
+            ConfigField field = fields.get(i);
+            String comment = field.getComment();
             String key = field.getName();
 
-            if (!json.has(key)) continue;
-
-            boolean isLast = (i == fields.length - 1);
+            boolean isLast = (i == fields.size() - 1);
 
             if (comment != null) {
                 sb.append("    \"_comment_").append(key).append("\": \"")
-                  .append(comment.value().replace("\"", "\\\""))
+                  .append(comment.replace("\"", "\\\""))
                   .append("\",\n");
             }
 
             sb.append("    \"").append(key).append("\": ")
-              .append(GSON.toJson(json.get(key)));
+              .append(GSON.toJson(field.get(config)));
 
             if (!isLast) sb.append(",");
             sb.append("\n");
@@ -0,0 +1,12 @@
+package com.thatmg393.bettertpa4fabric.config.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Marks an option that can only be changed in the config file, never with {@code /tpaconfig}. */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface FileOnly {
+}
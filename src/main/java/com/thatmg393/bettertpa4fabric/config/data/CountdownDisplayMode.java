@@ -0,0 +1,5 @@
+package com.thatmg393.bettertpa4fabric.config.data;
+
+public enum CountdownDisplayMode {
+    CHAT, ACTION_BAR, BOSS_BAR
+}
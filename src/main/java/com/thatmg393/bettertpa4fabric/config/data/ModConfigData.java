@@ -1,6 +1,7 @@
 package com.thatmg393.bettertpa4fabric.config.data;
 
 import com.thatmg393.bettertpa4fabric.config.annotations.ConfigComment;
+import com.thatmg393.bettertpa4fabric.config.annotations.FileOnly;
 
 public class ModConfigData {
     @ConfigComment("How long before a pending TPA request expires, in seconds")
@@ -15,11 +16,38 @@ public class ModConfigData {
     @ConfigComment("If true, moving during countdown resets the timer instead of cancelling")
     public boolean resetTimerOnMove = false;
 
-    @ConfigComment("How long before a player can send another TPA request, in seconds (deprecated)")
+    @ConfigComment("How often a countdown checks whether the player moved, in ticks (1 checks every tick)")
+    public int countdownMoveCheckInterval = 5;
+
+    @ConfigComment("Where the teleport countdown is shown: CHAT, ACTION_BAR or BOSS_BAR")
+    public CountdownDisplayMode countdownDisplay = CountdownDisplayMode.CHAT;
+
+    @ConfigComment("How long the mod's deferrable work (expiry sweeps, metrics export) may take per tick, in nanoseconds. It also backs off when the tick is already close to 50 ms. 0 disables the budget")
+    public long tickBudgetNanos = 2_000_000;
+
+    // a path the server writes to, ops in game shouldn't get to point it anywhere they like
+    @FileOnly
+    @ConfigComment("File to write metrics to in the OpenMetrics text format, e.g. for node-exporter's textfile collector (empty disables it)")
+    public String metricsExportFile = "";
+
+    @ConfigComment("How often the metrics file is rewritten, in seconds")
+    public int metricsExportInterval = 15;
+
+    @ConfigComment("How long it takes a player to earn back one TPA request after sending it, in seconds (0 disables the cooldown)")
     public int tpaCooldown = 5;
 
-    @ConfigComment("Maximum number of simultaneous incoming requests a player can have (deprecated)")
+    @ConfigComment("How many TPA requests a player can send back to back before tpaCooldown kicks in")
+    public int tpaCooldownBurst = 1;
+
+    @ConfigComment("Maximum number of simultaneous incoming requests a player can have")
     public int tpaRequestLimit = 99;
 
-    public int configVersion = 5;
+    @ConfigComment("What to do with a request to a player who already has tpaRequestLimit: REJECT_NEWEST, EVICT_OLDEST or EVICT_EXPIRED_FIRST")
+    public RequestOverflowPolicy requestOverflowPolicy = RequestOverflowPolicy.EVICT_EXPIRED_FIRST;
+
+    @ConfigComment("Maximum number of pending requests on the whole server, new ones are turned away beyond it")
+    public int globalRequestLimit = 10000;
+
+    @FileOnly
+    public int configVersion = 11;
 }
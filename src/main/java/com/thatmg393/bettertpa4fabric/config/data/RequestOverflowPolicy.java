@@ -0,0 +1,11 @@
+package com.thatmg393.bettertpa4fabric.config.data;
+
+/** What happens to a new request when its receiver already has {@code tpaRequestLimit} pending. */
+public enum RequestOverflowPolicy {
+    /** Turn the new request away. */
+    REJECT_NEWEST,
+    /** Drop the receiver's oldest pending request to make room. */
+    EVICT_OLDEST,
+    /** Drop requests that already expired but weren't swept yet, and turn the new one away if that's not enough. */
+    EVICT_EXPIRED_FIRST
+}
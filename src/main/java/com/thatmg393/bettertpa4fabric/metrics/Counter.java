@@ -0,0 +1,47 @@
+package com.thatmg393.bettertpa4fabric.metrics;
+
+/** A monotonically increasing count. Server thread only. */
+public final class Counter extends Metric {
+    private long value;
+
+    Counter(String name, String help, String labels) {
+        super(name, help, labels);
+    }
+
+    public void inc() {
+        value++;
+    }
+
+    public void add(long amount) {
+        value += amount;
+    }
+
+    public long get() {
+        return value;
+    }
+
+    @Override
+    String type() {
+        return "counter";
+    }
+
+    @Override
+    int width() {
+        return 1;
+    }
+
+    @Override
+    void copyTo(long[] values, int offset) {
+        values[offset] = value;
+    }
+
+    @Override
+    void write(StringBuilder out, long[] values, int offset) {
+        appendSample(out, "_total", "", Long.toString(values[offset]));
+    }
+
+    @Override
+    String summarize(long[] values, int offset) {
+        return displayName() + ": " + values[offset];
+    }
+}
@@ -0,0 +1,38 @@
+package com.thatmg393.bettertpa4fabric.metrics;
+
+import java.util.function.LongSupplier;
+
+/** A value read from elsewhere whenever a snapshot is taken, e.g. a queue depth. */
+public final class Gauge extends Metric {
+    private final LongSupplier supplier;
+
+    Gauge(String name, String help, String labels, LongSupplier supplier) {
+        super(name, help, labels);
+        this.supplier = supplier;
+    }
+
+    @Override
+    String type() {
+        return "gauge";
+    }
+
+    @Override
+    int width() {
+        return 1;
+    }
+
+    @Override
+    void copyTo(long[] values, int offset) {
+        values[offset] = supplier.getAsLong();
+    }
+
+    @Override
+    void write(StringBuilder out, long[] values, int offset) {
+        appendSample(out, "", "", Long.toString(values[offset]));
+    }
+
+    @Override
+    String summarize(long[] values, int offset) {
+        return displayName() + ": " + values[offset];
+    }
+}
@@ -0,0 +1,111 @@
+package com.thatmg393.bettertpa4fabric.metrics;
+
+/**
+ * Latency histogram with power-of-two buckets: recording is a
+ * leading-zero count and an increment, with no allocation and no
+ * configuration. Bucket {@code i} holds values in {@code (2^(i-1), 2^i]}
+ * units, values are exported in seconds. Server thread only.
+ */
+public final class Histogram extends Metric {
+    private static final int BUCKETS = 64;
+    // count, sum, then the buckets
+    private static final int WIDTH = BUCKETS + 2;
+
+    private final double unitSeconds;
+    private final long[] buckets = new long[BUCKETS];
+    private long count;
+    private long sum;
+
+    Histogram(String name, String help, String labels, double unitSeconds) {
+        super(name, help, labels);
+        this.unitSeconds = unitSeconds;
+    }
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+
+        buckets[value <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(value - 1)]++;
+        count++;
+        sum += value;
+    }
+
+    /** Records the time since {@code startNanos}, for histograms in nanoseconds. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    String type() {
+        return "histogram";
+    }
+
+    @Override
+    int width() {
+        return WIDTH;
+    }
+
+    @Override
+    void copyTo(long[] values, int offset) {
+        values[offset] = count;
+        values[offset + 1] = sum;
+        System.arraycopy(buckets, 0, values, offset + 2, BUCKETS);
+    }
+
+    @Override
+    void write(StringBuilder out, long[] values, int offset) {
+        long total = values[offset];
+
+        // buckets below the first and above the last non-empty one add nothing the neighbours don't say
+        int first = 0;
+        int last = -1;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (values[offset + 2 + i] == 0) continue;
+            if (last < 0) first = i;
+            last = i;
+        }
+
+        long cumulative = 0;
+        for (int i = first; i <= last; i++) {
+            cumulative += values[offset + 2 + i];
+            appendSample(out, "_bucket", "le=\"" + upperBoundSeconds(i) + "\"", Long.toString(cumulative));
+        }
+
+        appendSample(out, "_bucket", "le=\"+Inf\"", Long.toString(total));
+        appendSample(out, "_count", "", Long.toString(total));
+        appendSample(out, "_sum", "", Double.toString(values[offset + 1] * unitSeconds));
+    }
+
+    @Override
+    String summarize(long[] values, int offset) {
+        long total = values[offset];
+        if (total == 0) return displayName() + ": no samples";
+
+        return displayName() + ": " + total + " samples, avg " + formatSeconds(values[offset + 1] * unitSeconds / total)
+            + ", p50 <= " + formatSeconds(quantileSeconds(values, offset, 0.5))
+            + ", p99 <= " + formatSeconds(quantileSeconds(values, offset, 0.99));
+    }
+
+    private double quantileSeconds(long[] values, int offset, double quantile) {
+        long rank = (long) Math.ceil(values[offset] * quantile);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += values[offset + 2 + i];
+            if (cumulative >= rank) return upperBoundSeconds(i);
+        }
+        return upperBoundSeconds(BUCKETS - 1);
+    }
+
+    private double upperBoundSeconds(int bucket) {
+        return Math.scalb(1.0, bucket) * unitSeconds;
+    }
+
+    private static String formatSeconds(double seconds) {
+        if (seconds < 1e-3) return String.format("%.1f µs", seconds * 1e6);
+        if (seconds < 1) return String.format("%.1f ms", seconds * 1e3);
+        return String.format("%.2f s", seconds);
+    }
+}
@@ -0,0 +1,47 @@
+package com.thatmg393.bettertpa4fabric.metrics;
+
+/**
+ * A metric in a {@link MetricsRegistry}. Metrics with the same name form one
+ * family and differ only in their labels. Values are only touched on the
+ * server thread; snapshots copy them out so they can be formatted elsewhere.
+ */
+public abstract class Metric {
+    final String name;
+    final String help;
+    final String labels;
+
+    Metric(String name, String help, String labels) {
+        this.name = name;
+        this.help = help;
+        this.labels = labels;
+    }
+
+
+    /** The OpenMetrics type of this metric's family. */
+    abstract String type();
+
+    /** How many longs {@link #copyTo} writes. */
+    abstract int width();
+
+    abstract void copyTo(long[] values, int offset);
+
+    /** Appends this metric's OpenMetrics sample lines for a snapshot taken with {@link #copyTo}. */
+    abstract void write(StringBuilder out, long[] values, int offset);
+
+    /** One line for /tpastats. */
+    abstract String summarize(long[] values, int offset);
+
+    String displayName() {
+        return labels.isEmpty() ? name : name + "{" + labels + "}";
+    }
+
+    void appendSample(StringBuilder out, String suffix, String extraLabel, String value) {
+        out.append(name).append(suffix);
+        if (!labels.isEmpty() || !extraLabel.isEmpty()) {
+            out.append('{').append(labels);
+            if (!labels.isEmpty() && !extraLabel.isEmpty()) out.append(',');
+            out.append(extraLabel).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+}
@@ -0,0 +1,51 @@
+package com.thatmg393.bettertpa4fabric.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+
+/**
+ * Writes {@link MetricsRegistry.Snapshot}s to an OpenMetrics text file for
+ * node-exporter's textfile collector. Formatting and I/O happen on a
+ * background thread; if it falls behind, only the newest snapshot is written.
+ */
+public class MetricsExporter {
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BetterTPA4Fabric Metrics Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void export(Path file, MetricsRegistry.Snapshot snapshot) {
+        if (pending.getAndSet(new Pending(file, snapshot)) == null) writer.execute(this::writePending);
+    }
+
+    public void close() {
+        writer.shutdown();
+    }
+
+    private void writePending() {
+        Pending next = pending.getAndSet(null);
+        if (next == null) return;
+
+        // the collector must never see a half written file
+        Path temp = next.file().resolveSibling(next.file().getFileName() + ".tmp");
+        try {
+            Files.createDirectories(next.file().toAbsolutePath().getParent());
+            Files.writeString(temp, next.snapshot().toOpenMetrics(), StandardCharsets.UTF_8);
+            Files.move(temp, next.file(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.warn("Failed to write metrics to {}! {}", next.file(), e.toString());
+        }
+    }
+
+    private record Pending(Path file, MetricsRegistry.Snapshot snapshot) { }
+}
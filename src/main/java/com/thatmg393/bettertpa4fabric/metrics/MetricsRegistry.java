@@ -0,0 +1,89 @@
+package com.thatmg393.bettertpa4fabric.metrics;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Holds every metric in registration order. Register metrics of the same
+ * family one after another, the exporter only writes a family header when
+ * the name changes.
+ */
+public class MetricsRegistry {
+    private final ObjectArrayList<Metric> metrics = new ObjectArrayList<>();
+    private int width;
+
+    public Counter counter(String name, String help) {
+        return counter(name, help, "");
+    }
+
+    /** {@code labels} is the OpenMetrics label set without braces, e.g. {@code command="tpa"}. */
+    public Counter counter(String name, String help, String labels) {
+        return register(new Counter(name, help, labels));
+    }
+
+    public Gauge gauge(String name, String help, LongSupplier supplier) {
+        return register(new Gauge(name, help, "", supplier));
+    }
+
+    /** A histogram of values in units of {@code unitSeconds}, e.g. {@code 1e-9} for nanoseconds. */
+    public Histogram histogram(String name, String help, double unitSeconds) {
+        return register(new Histogram(name, help, "", unitSeconds));
+    }
+
+    /** Copies every value out. Call on the server thread; the snapshot can then go anywhere. */
+    public Snapshot snapshot() {
+        Metric[] taken = metrics.toArray(new Metric[0]);
+        long[] values = new long[width];
+
+        int offset = 0;
+        for (Metric metric : taken) {
+            metric.copyTo(values, offset);
+            offset += metric.width();
+        }
+
+        return new Snapshot(taken, values);
+    }
+
+    private <M extends Metric> M register(M metric) {
+        metrics.add(metric);
+        width += metric.width();
+        return metric;
+    }
+
+    public record Snapshot(Metric[] metrics, long[] values) {
+        /** The snapshot in the OpenMetrics text format. */
+        public String toOpenMetrics() {
+            StringBuilder out = new StringBuilder(4096);
+
+            String family = null;
+            int offset = 0;
+            for (Metric metric : metrics) {
+                if (!metric.name.equals(family)) {
+                    family = metric.name;
+                    out.append("# TYPE ").append(family).append(' ').append(metric.type()).append('\n');
+                    out.append("# HELP ").append(family).append(' ').append(metric.help).append('\n');
+                }
+
+                metric.write(out, values, offset);
+                offset += metric.width();
+            }
+
+            return out.append("# EOF\n").toString();
+        }
+
+        /** One human readable line per metric. */
+        public List<String> summarize() {
+            ObjectArrayList<String> lines = new ObjectArrayList<>(metrics.length);
+
+            int offset = 0;
+            for (Metric metric : metrics) {
+                lines.add(metric.summarize(values, offset));
+                offset += metric.width();
+            }
+
+            return lines;
+        }
+    }
+}
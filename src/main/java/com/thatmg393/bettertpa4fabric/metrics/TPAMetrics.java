@@ -0,0 +1,101 @@
+package com.thatmg393.bettertpa4fabric.metrics;
+
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+/**
+ * The mod's own metrics. Everything here is recorded on the server thread;
+ * see {@link MetricsExporter} for how they leave it.
+ */
+public class TPAMetrics {
+    public static final TPAMetrics INSTANCE = new TPAMetrics();
+
+    private static final String PREFIX = "bettertpa4fabric_";
+    private static final String[] COMMANDS = { "tpa", "tpahere", "tpaback", "tpaaccept", "tpadeny", "tpacancel", "tpaallow" };
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    private final Object2ObjectOpenHashMap<String, Counter> commands = new Object2ObjectOpenHashMap<>();
+    public final Histogram commandDuration;
+
+    public final Counter tpaRequestsSent;
+    public final Counter tpaHereRequestsSent;
+    public final Counter requestsRateLimited;
+    public final Counter requestsRejectedReceiverFull;
+    public final Counter requestsRejectedServerFull;
+    public final Counter requestsEvicted;
+    public final Counter requestsAccepted;
+    public final Counter requestsDenied;
+    public final Counter requestsCancelled;
+    public final Counter requestsExpired;
+    public final Histogram acceptLatency;
+
+    public final Counter countdownsStarted;
+    private final Counter[] countdownResults = new Counter[TeleportTask.Result.values().length];
+    public final Counter teleports;
+    public final Histogram teleportLatency;
+
+    public final Histogram taskTickDuration;
+    public final Histogram expirySweepDuration;
+    public final Histogram teleportFlushDuration;
+
+    private TPAMetrics() {
+        for (String command : COMMANDS) {
+            commands.put(command, registry.counter(PREFIX + "commands", "Commands run, by command", "command=\"" + command + "\""));
+        }
+        commandDuration = registry.histogram(PREFIX + "command_duration_seconds", "Time spent running a command", 1e-9);
+
+        tpaRequestsSent = registry.counter(PREFIX + "requests_sent", "Requests sent, by kind", "kind=\"tpa\"");
+        tpaHereRequestsSent = registry.counter(PREFIX + "requests_sent", "Requests sent, by kind", "kind=\"tpahere\"");
+        requestsRateLimited = registry.counter(PREFIX + "requests_rate_limited", "Requests rejected because the sender was on cooldown");
+        requestsRejectedReceiverFull = registry.counter(PREFIX + "requests_limited", "Requests turned away by a request limit, by limit", "limit=\"receiver\"");
+        requestsRejectedServerFull = registry.counter(PREFIX + "requests_limited", "Requests turned away by a request limit, by limit", "limit=\"server\"");
+        requestsEvicted = registry.counter(PREFIX + "requests_evicted", "Pending requests dropped to make room for newer ones");
+        requestsAccepted = registry.counter(PREFIX + "requests_accepted", "Requests accepted");
+        requestsDenied = registry.counter(PREFIX + "requests_denied", "Requests denied");
+        requestsCancelled = registry.counter(PREFIX + "requests_cancelled", "Requests cancelled by their sender");
+        requestsExpired = registry.counter(PREFIX + "requests_expired", "Requests that expired unanswered");
+        acceptLatency = registry.histogram(PREFIX + "accept_latency_seconds", "Time from a request being sent to it being accepted", 1e-3);
+
+        countdownsStarted = registry.counter(PREFIX + "countdowns_started", "Teleport countdowns started");
+        for (TeleportTask.Result result : TeleportTask.Result.values()) {
+            // the rest end requests that never got to a countdown
+            if (result.ordinal() > TeleportTask.Result.SUCCESS.ordinal()) break;
+
+            countdownResults[result.ordinal()] = registry.counter(
+                PREFIX + "countdown_results", "How countdowns ended (or restarted, for a move with resetTimerOnMove), by result",
+                "result=\"" + result.name().toLowerCase(Locale.ROOT) + "\""
+            );
+        }
+        teleports = registry.counter(PREFIX + "teleports", "Teleports queued");
+        teleportLatency = registry.histogram(PREFIX + "teleport_latency_seconds", "Time from a request being accepted to its teleport", 1e-9);
+
+        taskTickDuration = registry.histogram(PREFIX + "task_tick_duration_seconds", "Time spent running scheduled tasks per tick", 1e-9);
+        expirySweepDuration = registry.histogram(PREFIX + "expiry_sweep_duration_seconds", "Time spent per expired request sweep", 1e-9);
+        teleportFlushDuration = registry.histogram(PREFIX + "teleport_flush_duration_seconds", "Time spent performing a tick's batched teleports", 1e-9);
+    }
+
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /** The run counter of one of the player commands. */
+    public Counter command(String name) {
+        Counter counter = commands.get(name);
+        if (counter == null) throw new IllegalArgumentException("Unknown command " + name);
+        return counter;
+    }
+
+    public void countdownResult(TeleportTask.Result result) {
+        countdownResults[result.ordinal()].inc();
+    }
+
+    /** Registers a gauge, meant for TeleportManager's queue depths. Gauges are read on the server thread. */
+    public Gauge gauge(String name, String help, LongSupplier supplier) {
+        return registry.gauge(PREFIX + name, help, supplier);
+    }
+}
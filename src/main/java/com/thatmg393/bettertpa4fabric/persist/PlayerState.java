@@ -0,0 +1,65 @@
+package com.thatmg393.bettertpa4fabric.persist;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+/** The part of a player's data that outlives their session. */
+public record PlayerState(
+    UUID owner,
+    boolean allowTeleportRequests,
+    @Nullable TeleportTarget.PositionTarget previousTeleportPosition
+) {
+    private static final byte FLAG_ALLOW_REQUESTS = 1;
+    private static final byte FLAG_HAS_BACK_POSITION = 1 << 1;
+
+    public byte[] encode() {
+        byte[] world = previousTeleportPosition == null
+            ? new byte[0]
+            : previousTeleportPosition.world().getValue().toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 2 + 1 + (previousTeleportPosition == null ? 0 : Short.BYTES + world.length + Long.BYTES));
+        buffer.putLong(owner.getMostSignificantBits());
+        buffer.putLong(owner.getLeastSignificantBits());
+
+        byte flags = 0;
+        if (allowTeleportRequests) flags |= FLAG_ALLOW_REQUESTS;
+        if (previousTeleportPosition != null) flags |= FLAG_HAS_BACK_POSITION;
+        buffer.put(flags);
+
+        if (previousTeleportPosition != null) {
+            buffer.putShort((short) world.length);
+            buffer.put(world);
+            buffer.putLong(previousTeleportPosition.pos().asLong());
+        }
+
+        return buffer.array();
+    }
+
+    public static PlayerState decode(ByteBuffer buffer) {
+        UUID owner = new UUID(buffer.getLong(), buffer.getLong());
+        byte flags = buffer.get();
+
+        TeleportTarget.PositionTarget back = null;
+        if ((flags & FLAG_HAS_BACK_POSITION) != 0) {
+            byte[] world = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(world);
+
+            back = new TeleportTarget.PositionTarget(
+                RegistryKey.of(RegistryKeys.WORLD, Identifier.of(new String(world, StandardCharsets.UTF_8))),
+                BlockPos.fromLong(buffer.getLong())
+            );
+        }
+
+        return new PlayerState(owner, (flags & FLAG_ALLOW_REQUESTS) != 0, back);
+    }
+}
@@ -0,0 +1,119 @@
+package com.thatmg393.bettertpa4fabric.persist;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Player states kept in memory and written behind to a {@link RecordLog}.
+ * The server thread only ever touches the in-memory index; a single
+ * background thread batches dirty states into the log and compacts it
+ * once superseded records pile up.
+ */
+public class PlayerStateStore {
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+    // compact once the log holds this many times more records than there are players
+    private static final int COMPACT_RATIO = 4;
+    private static final int COMPACT_MIN_RECORDS = 1024;
+
+    private final Object2ObjectOpenHashMap<UUID, PlayerState> states = new Object2ObjectOpenHashMap<>();
+    private final ConcurrentHashMap<UUID, PlayerState> dirty = new ConcurrentHashMap<>();
+
+    // owned by the writer thread once open() returns
+    private final RecordLog log;
+    private final Object2ObjectOpenHashMap<UUID, byte[]> written = new Object2ObjectOpenHashMap<>();
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "BetterTPA4Fabric Player State Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PlayerStateStore(Path path) throws IOException {
+        this.log = RecordLog.open(path, record -> {
+            PlayerState state = PlayerState.decode(record.duplicate());
+            states.put(state.owner(), state);
+
+            byte[] encoded = new byte[record.remaining()];
+            record.get(encoded);
+            written.put(state.owner(), encoded);
+        });
+
+        writer.scheduleWithFixedDelay(this::flushDirty, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Reads the whole log into memory. Meant for server startup, before anyone can join. */
+    public static PlayerStateStore open(Path path) throws IOException {
+        PlayerStateStore store = new PlayerStateStore(path);
+        BetterTPA4Fabric.LOGGER.info("Loaded {} saved player state(s)", store.states.size());
+        return store;
+    }
+
+    public @Nullable PlayerState get(UUID player) {
+        return states.get(player);
+    }
+
+    /** Records the new state; it reaches disk with the writer's next batch. */
+    public void put(PlayerState state) {
+        if (state.equals(states.put(state.owner(), state))) return;
+        dirty.put(state.owner(), state);
+    }
+
+    /** Writes out everything still pending and stops the writer. Blocks until done. */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                BetterTPA4Fabric.LOGGER.warn("Player state writer did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // the writer is stopped, so it's safe to finish its work here
+        flushDirty();
+        try {
+            log.close();
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.error("Failed to close player state log! " + e.toString());
+        }
+    }
+
+    private void flushDirty() {
+        if (dirty.isEmpty()) return;
+
+        ObjectArrayList<PlayerState> taken = new ObjectArrayList<>(dirty.size());
+        ObjectArrayList<byte[]> batch = new ObjectArrayList<>(dirty.size());
+        for (Map.Entry<UUID, PlayerState> entry : dirty.entrySet()) {
+            // only take it if the server thread didn't replace it in the meantime
+            if (!dirty.remove(entry.getKey(), entry.getValue())) continue;
+
+            taken.add(entry.getValue());
+            batch.add(entry.getValue().encode());
+        }
+
+        try {
+            log.append(batch);
+            for (int i = 0; i < taken.size(); i++) written.put(taken.get(i).owner(), batch.get(i));
+
+            if (log.getRecordCount() > Math.max(COMPACT_MIN_RECORDS, written.size() * COMPACT_RATIO)) {
+                log.rewrite(written.values());
+            }
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.error("Failed to write player states! " + e.toString());
+            for (PlayerState state : taken) dirty.putIfAbsent(state.owner(), state); // retry with the next batch
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.thatmg393.bettertpa4fabric.persist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+
+/**
+ * Append-only file of length + CRC32 framed records. A torn or corrupt tail
+ * (e.g. from a crash mid-write) is cut off when the log is opened, so every
+ * record that was fully written survives.
+ *
+ * Not thread safe, keep all calls on one thread.
+ */
+public class RecordLog implements Closeable {
+    public static final int MAX_RECORD_SIZE = 1 << 16;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final Path path;
+    private FileChannel channel;
+    private int recordCount;
+
+    private RecordLog(Path path, FileChannel channel, int recordCount) {
+        this.path = path;
+        this.channel = channel;
+        this.recordCount = recordCount;
+    }
+
+    /** Opens (or creates) the log, feeding every intact record to {@code reader} in write order. */
+    public static RecordLog open(Path path, Consumer<ByteBuffer> reader) throws IOException {
+        Files.createDirectories(path.getParent());
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer contents = ByteBuffer.allocate((int) channel.size());
+        while (contents.hasRemaining() && channel.read(contents) >= 0) { }
+        contents.flip();
+
+        CRC32 crc = new CRC32();
+        int records = 0;
+        int validEnd = 0;
+
+        while (contents.remaining() >= HEADER_SIZE) {
+            int length = contents.getInt();
+            int checksum = contents.getInt();
+            if (length < 0 || length > MAX_RECORD_SIZE || length > contents.remaining()) break;
+
+            ByteBuffer payload = contents.slice(contents.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) break;
+
+            contents.position(contents.position() + length);
+            reader.accept(payload.asReadOnlyBuffer());
+
+            validEnd = contents.position();
+            records++;
+        }
+
+        if (validEnd < channel.size()) {
+            BetterTPA4Fabric.LOGGER.warn("Dropping {} corrupt trailing byte(s) from {}", channel.size() - validEnd, path.getFileName());
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+
+        channel.position(validEnd);
+        return new RecordLog(path, channel, records);
+    }
+
+    /** Appends every payload with a single write, then syncs the file. */
+    public void append(Collection<byte[]> payloads) throws IOException {
+        if (payloads.isEmpty()) return;
+
+        channel.write(frame(payloads));
+        channel.force(false);
+        recordCount += payloads.size();
+    }
+
+    /** Replaces the whole log with {@code payloads}. The old file stays intact until the new one is fully on disk. */
+    public void rewrite(Collection<byte[]> payloads) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer frames = frame(payloads);
+            while (frames.hasRemaining()) out.write(frames);
+            out.force(true);
+        }
+
+        channel.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        recordCount = payloads.size();
+    }
+
+    /** Records in the file, including ones that were later superseded. */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer frame(Collection<byte[]> payloads) {
+        int size = 0;
+        for (byte[] payload : payloads) {
+            if (payload.length > MAX_RECORD_SIZE) throw new IllegalArgumentException("Record too large: " + payload.length + " bytes");
+            size += HEADER_SIZE + payload.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+
+            buffer.putInt(payload.length);
+            buffer.putInt((int) crc.getValue());
+            buffer.put(payload);
+        }
+
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,261 @@
+package com.thatmg393.bettertpa4fabric.persist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Write-ahead journal of pending and accepted requests, so they survive a
+ * restart. Events are handed to a writer thread that commits everything
+ * queued up since its last fsync in one write (group commit), so callers
+ * never wait on disk.
+ *
+ * The journal is split into segments. When the active one fills up, a new
+ * segment is started with a snapshot of every live entry and the older
+ * segments are deleted.
+ */
+public class RequestJournal {
+    public enum Kind { TPA, TPA_HERE }
+
+    /** A journaled request. {@code accepted} ones had a countdown running when they were last written. */
+    public record Entry(UUID sender, UUID receiver, Kind kind, long createdAt, boolean accepted) { }
+
+    private static final int SEGMENT_MAX_RECORDS = 4096;
+    private static final String SEGMENT_PREFIX = "requests-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final byte OP_CREATED = 0;
+    private static final byte OP_ACCEPTED = 1;
+    private static final byte OP_CLOSED = 2;
+    // like OP_CLOSED, but leaves a newer pending request between the same players alone
+    private static final byte OP_FINISHED = 3;
+
+    private record Key(UUID sender, UUID receiver) { }
+    private record Event(byte op, Entry entry) { }
+
+    // a sentinel to wake the writer up for shutdown
+    private static final Event STOP = new Event(OP_CLOSED, null);
+
+    private final Path directory;
+    private final int segmentMaxRecords;
+    private final LinkedBlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private final List<Entry> restored;
+
+    // owned by the writer thread
+    private final Object2ObjectLinkedOpenHashMap<Key, Entry> live = new Object2ObjectLinkedOpenHashMap<>();
+    private RecordLog segment;
+    private int segmentIndex;
+
+    private final Thread writer;
+    private volatile boolean recording = true;
+
+    private RequestJournal(Path directory, long expireMillis, int segmentMaxRecords) throws IOException {
+        this.directory = directory;
+        this.segmentMaxRecords = segmentMaxRecords;
+        Files.createDirectories(directory);
+
+        ObjectArrayList<Path> segments = listSegments();
+        for (Path path : segments) {
+            RecordLog.open(path, record -> apply(decode(record))).close();
+        }
+
+        long now = System.currentTimeMillis();
+        live.values().removeIf(entry -> entry.createdAt() + expireMillis < now);
+        this.restored = List.copyOf(live.values());
+
+        segmentIndex = segments.isEmpty() ? 0 : indexOf(segments.get(segments.size() - 1));
+        startNextSegment();
+
+        this.writer = new Thread(this::runWriter, "BetterTPA4Fabric Request Journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Replays every segment in {@code directory}, dropping entries already older than {@code expireMillis}. */
+    public static RequestJournal open(Path directory, long expireMillis) throws IOException {
+        return open(directory, expireMillis, SEGMENT_MAX_RECORDS);
+    }
+
+    // tests roll segments over after a handful of records
+    static RequestJournal open(Path directory, long expireMillis, int segmentMaxRecords) throws IOException {
+        RequestJournal journal = new RequestJournal(directory, expireMillis, segmentMaxRecords);
+        BetterTPA4Fabric.LOGGER.info("Restored {} journaled request(s)", journal.restored.size());
+        return journal;
+    }
+
+    /** Entries that were live when the server last stopped, in the order they were created. */
+    public List<Entry> getRestored() {
+        return restored;
+    }
+
+    public void created(UUID sender, UUID receiver, Kind kind, long createdAt) {
+        record(new Event(OP_CREATED, new Entry(sender, receiver, kind, createdAt, false)));
+    }
+
+    /** {@code createdAt} is when the request was sent, not when it was accepted; a restored request expires from it. */
+    public void accepted(UUID sender, UUID receiver, Kind kind, long createdAt) {
+        record(new Event(OP_ACCEPTED, new Entry(sender, receiver, kind, createdAt, true)));
+    }
+
+    public void closed(UUID sender, UUID receiver) {
+        record(new Event(OP_CLOSED, new Entry(sender, receiver, Kind.TPA, 0, false)));
+    }
+
+    /** The countdown of an accepted request is over. */
+    public void finished(UUID sender, UUID receiver) {
+        record(new Event(OP_FINISHED, new Entry(sender, receiver, Kind.TPA, 0, false)));
+    }
+
+    /**
+     * Stops recording new events. Called when the server starts shutting down,
+     * so players being kicked doesn't close every request they had.
+     */
+    public void suspend() {
+        recording = false;
+    }
+
+    /** Commits whatever is still queued and stops the writer. Blocks until done. */
+    public void close() {
+        recording = false;
+        events.add(STOP);
+
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void record(Event event) {
+        if (recording) events.add(event);
+    }
+
+    private void runWriter() {
+        ObjectArrayList<Event> batch = new ObjectArrayList<>();
+        ObjectArrayList<byte[]> payloads = new ObjectArrayList<>();
+        boolean stopping = false;
+
+        while (!stopping) {
+            try {
+                batch.add(events.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            events.drainTo(batch);
+
+            for (Event event : batch) {
+                if (event == STOP) {
+                    stopping = true;
+                    continue;
+                }
+
+                apply(event);
+                payloads.add(encode(event));
+            }
+
+            try {
+                segment.append(payloads);
+                if (segment.getRecordCount() >= segmentMaxRecords) startNextSegment();
+            } catch (IOException e) {
+                BetterTPA4Fabric.LOGGER.error("Failed to write request journal! " + e.toString());
+            }
+
+            batch.clear();
+            payloads.clear();
+        }
+
+        try {
+            segment.close();
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.error("Failed to close request journal! " + e.toString());
+        }
+    }
+
+    private void apply(Event event) {
+        Key key = new Key(event.entry().sender(), event.entry().receiver());
+        switch (event.op()) {
+            case OP_CLOSED -> live.remove(key);
+            case OP_FINISHED -> {
+                Entry current = live.get(key);
+                if (current != null && current.accepted()) live.remove(key);
+            }
+            default -> live.put(key, event.entry());
+        }
+    }
+
+    /** Starts a new segment holding a snapshot of the live entries, then deletes every older one. */
+    private void startNextSegment() throws IOException {
+        if (segment != null) segment.close();
+
+        Path path = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, ++segmentIndex, SEGMENT_SUFFIX));
+        segment = RecordLog.open(path, record -> { });
+
+        ObjectArrayList<byte[]> snapshot = new ObjectArrayList<>(live.size());
+        for (Entry entry : live.values()) {
+            snapshot.add(encode(new Event(entry.accepted() ? OP_ACCEPTED : OP_CREATED, entry)));
+        }
+        segment.rewrite(snapshot);
+
+        for (Path old : listSegments()) {
+            if (indexOf(old) < segmentIndex) Files.deleteIfExists(old);
+        }
+    }
+
+    private ObjectArrayList<Path> listSegments() throws IOException {
+        ObjectArrayList<Path> segments = new ObjectArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).forEach(segments::add);
+        }
+
+        segments.sort((a, b) -> Integer.compare(indexOf(a), indexOf(b)));
+        return segments;
+    }
+
+    private static int indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static byte[] encode(Event event) {
+        Entry entry = event.entry();
+        boolean closed = event.op() == OP_CLOSED || event.op() == OP_FINISHED;
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Long.BYTES * 4 + (closed ? 0 : 1 + Long.BYTES));
+        buffer.put(event.op());
+        buffer.putLong(entry.sender().getMostSignificantBits());
+        buffer.putLong(entry.sender().getLeastSignificantBits());
+        buffer.putLong(entry.receiver().getMostSignificantBits());
+        buffer.putLong(entry.receiver().getLeastSignificantBits());
+
+        if (!closed) {
+            buffer.put((byte) entry.kind().ordinal());
+            buffer.putLong(entry.createdAt());
+        }
+
+        return buffer.array();
+    }
+
+    private static Event decode(ByteBuffer buffer) {
+        byte op = buffer.get();
+        UUID sender = new UUID(buffer.getLong(), buffer.getLong());
+        UUID receiver = new UUID(buffer.getLong(), buffer.getLong());
+
+        if (op == OP_CLOSED || op == OP_FINISHED) return new Event(op, new Entry(sender, receiver, Kind.TPA, 0, false));
+
+        Kind kind = Kind.values()[buffer.get()];
+        return new Event(op, new Entry(sender, receiver, kind, buffer.getLong(), op == OP_ACCEPTED));
+    }
+}
@@ -1,133 +1,255 @@
 package com.thatmg393.bettertpa4fabric.tpa;
 
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.UUID;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
 
 import org.jetbrains.annotations.Nullable;
 
 import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+import com.thatmg393.bettertpa4fabric.api.TPAEvents;
+import com.thatmg393.bettertpa4fabric.bench.TickProfiler;
+import com.thatmg393.bettertpa4fabric.command.suggestion.PlayerNameIndex;
+import com.thatmg393.bettertpa4fabric.command.suggestion.SuggestionSnapshot;
+import com.thatmg393.bettertpa4fabric.config.ConfigSnapshot;
+import com.thatmg393.bettertpa4fabric.metrics.MetricsExporter;
+import com.thatmg393.bettertpa4fabric.metrics.TPAMetrics;
+import com.thatmg393.bettertpa4fabric.persist.PlayerState;
+import com.thatmg393.bettertpa4fabric.persist.PlayerStateStore;
+import com.thatmg393.bettertpa4fabric.persist.RequestJournal;
+import com.thatmg393.bettertpa4fabric.tpa.data.OnlinePlayers;
 import com.thatmg393.bettertpa4fabric.tpa.data.PlayerData;
+import com.thatmg393.bettertpa4fabric.tpa.data.RecentlyLeftPlayers;
+import com.thatmg393.bettertpa4fabric.tpa.data.RequestLimits;
+import com.thatmg393.bettertpa4fabric.tpa.data.RequestRateLimiter;
+import com.thatmg393.bettertpa4fabric.tpa.display.CountdownDisplays;
+import com.thatmg393.bettertpa4fabric.tpa.queue.OutgoingRequestIndex;
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestExpiryIndex;
 import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueue;
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueueListener;
 import com.thatmg393.bettertpa4fabric.tpa.request.TPABackRequest;
 import com.thatmg393.bettertpa4fabric.tpa.request.TPAHereRequest;
 import com.thatmg393.bettertpa4fabric.tpa.request.TPARequest;
 import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.RequestKeys;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
 import com.thatmg393.bettertpa4fabric.tpa.tickable.DefaultTickableTaskProcessor;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.TaskHandle;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.TickBudget;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.MetricsExportTask;
 import com.thatmg393.bettertpa4fabric.tpa.tickable.task.StaleRequestsCleanerTask;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
+import com.thatmg393.bettertpa4fabric.tpa.world.TeleportBatch;
+import com.thatmg393.bettertpa4fabric.utils.LangKeys;
 import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
 
-import it.unimi.dsi.fastutil.Pair;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectCollection;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
 import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
-import net.minecraft.network.packet.s2c.play.PositionFlag;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.PlayerManager;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ChunkTicketType;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.WorldSavePath;
 import net.minecraft.util.math.BlockPos;
 
 public class TeleportManager {
-    public static final TeleportManager INSTANCE = new TeleportManager();
-
     private static final ChunkTicketType TPA = (ChunkTicketType) Registry.register(
         Registries.TICKET_TYPE,
         Identifier.of(BetterTPA4Fabric.MOD_ID, "tpa"),
         new ChunkTicketType(20L, ChunkTicketType.FOR_LOADING)
     );
 
-    private final Object2ObjectOpenHashMap<UUID, PlayerData> playerDatas = new Object2ObjectOpenHashMap<>();
+    // held on the destination while a countdown runs, see DestinationChunkTicket
+    public static final ChunkTicketType TPA_PREWARM = (ChunkTicketType) Registry.register(
+        Registries.TICKET_TYPE,
+        Identifier.of(BetterTPA4Fabric.MOD_ID, "tpa_prewarm"),
+        new ChunkTicketType(40L, ChunkTicketType.FOR_LOADING)
+    );
+
+    // must come after the ticket types, instance fields use them
+    public static final TeleportManager INSTANCE = new TeleportManager();
+
+    // the tick length the server aims for; the mod's deferrable work never pushes a tick past it
+    private static final long TICK_TARGET_NANOS = 50_000_000L;
+
+    // stale expiry index entries tolerated on top of twice the live requests before it's compacted
+    private static final int EXPIRY_INDEX_SLACK = 1024;
+
+    // how many left players' data is kept around, and for how long
+    private static final int RETAINED_MAX_PLAYERS = 256;
+    private static final long RETAINED_MAX_AGE_MILLIS = 10 * 60 * 1000L;
+
+    // only players that are online, see recentlyLeft for the rest
+    private final OnlinePlayers onlinePlayers = new OnlinePlayers();
+    private final RequestRateLimiter requestRateLimiter = new RequestRateLimiter();
+    private final RequestLimits requestLimits = new RequestLimits(requestRateLimiter);
+    private final RecentlyLeftPlayers recentlyLeft = new RecentlyLeftPlayers(RETAINED_MAX_PLAYERS, RETAINED_MAX_AGE_MILLIS);
+    private final RequestExpiryIndex<BaseRequest> requestExpiries = new RequestExpiryIndex<>();
+    private final OutgoingRequestIndex outgoingRequests = new OutgoingRequestIndex();
+    private final PlayerNameIndex allowedPlayerNames = new PlayerNameIndex();
+    private volatile SuggestionSnapshot suggestions = SuggestionSnapshot.EMPTY;
+    private long suggestionsVersion = -1;
+    private final RequestQueueListener<UUID, BaseRequest> requestListener = new RequestQueueListener<>() {
+        @Override
+        public void onRequestAdded(UUID owner, UUID sender, BaseRequest request) {
+            outgoingRequests.onRequestAdded(owner, sender, request);
+            allowedPlayerNames.invalidate(); // senders don't get suggested targets they already have a request to
+            if (requestJournal != null && isPersistent(request)) requestJournal.created(sender, owner, journalKindOf(request), request.getCreatedAt());
+            requestLimits.onRequestAdded();
+        }
+
+        @Override
+        public void onRequestRemoved(UUID owner, UUID sender, BaseRequest request) {
+            outgoingRequests.onRequestRemoved(owner, sender, request);
+            allowedPlayerNames.invalidate();
+            if (requestJournal != null && isPersistent(request)) requestJournal.closed(sender, owner);
+            requestLimits.onRequestRemoved();
+        }
+    };
     private final DefaultTickableTaskProcessor tickableTasks = new DefaultTickableTaskProcessor();
+    private final MetricsExporter metricsExporter = new MetricsExporter();
+    private long tickStartNanos;
+    private int activeCountdowns;
+    private final CountdownDisplays countdownDisplays = new CountdownDisplays();
+    private final TeleportBatch pendingTeleports = new TeleportBatch(TPA, 3);
+    private final Consumer<BaseRequest> afterTeleport = request -> {
+        TPAEvents.AFTER_TELEPORT.invoker().afterTeleport(request);
+        request.complete(TeleportTask.Result.SUCCESS);
+    };
+    private final Consumer<ServerPlayerEntity> rememberBackPosition = player -> {
+        PlayerData data = findPlayerData(player.getUuid());
+        if (data == null) return; // left before the batch ran
+
+        data.previousTeleportPosition = new TeleportTarget.PositionTarget(player.getEntityWorld().getRegistryKey(), player.getBlockPos());
+        savePlayerState(player);
+    };
+
+    private @Nullable PlayerStateStore playerStates;
+    private @Nullable RequestJournal requestJournal;
+    // journaled requests whose sender or receiver hasn't joined since the restart, by both players
+    private final Object2ObjectOpenHashMap<UUID, ObjectArrayList<RequestJournal.Entry>> awaitingRestore = new Object2ObjectOpenHashMap<>();
+
+    private @Nullable TickProfiler tickProfiler;
+    private @Nullable ConfigSnapshot appliedConfig;
 
     public void init() {
-        ServerTickEvents.END_SERVER_TICK.register(server -> tickableTasks.doTick());
+        ServerTickEvents.START_SERVER_TICK.register(server -> tickStartNanos = System.nanoTime());
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            TickProfiler profiler = tickProfiler;
+            if (profiler != null) profiler.begin();
 
-        ServerPlayerEvents.JOIN.register(player -> playerDatas.put(player.getUuid(), new PlayerData()));
-        ServerPlayerEvents.LEAVE.register(player -> playerDatas.remove(player.getUuid()));
+            ConfigSnapshot config = BetterTPA4Fabric.config();
+            if (config != appliedConfig) applyConfig(config);
 
-        tickableTasks.putTask(new StaleRequestsCleanerTask());
-    }
+            long start = System.nanoTime();
+            tickableTasks.doTick(tickBudgetNanos(start));
+            TPAMetrics.INSTANCE.taskTickDuration.recordSince(start);
 
-    public int teleportTo(ServerPlayerEntity sender, ServerPlayerEntity receiver) {
-        if (sender.equals(receiver)) {
-            sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.tpa_to_self"));
-            return 0;
-        }
+            countdownDisplays.flush();
+            flushTeleports();
 
-        PlayerData receiverData = getPlayerData(receiver.getUuid());
-        if (!receiverData.allowTeleportRequests) {
-            sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.tpa_not_allowed"));
-            return 0;
-        }
+            if (allowedPlayerNames.getVersion() != suggestionsVersion) publishSuggestions();
 
-        if (receiverData.teleportRequests.containsKey(sender.getUuid())) {
-            sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.existing_request"));
-            return 0;
-        }
+            if (profiler != null) profiler.end();
+        });
 
-        receiverData.teleportRequests.add(
-            sender.getUuid(),
-            new TPARequest(sender, receiver)
-        );
+        ServerLifecycleEvents.SERVER_STARTED.register(this::openStores);
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            // kicking everyone on the way down must not close their requests
+            if (requestJournal != null) requestJournal.suspend();
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            closeStores();
+            metricsExporter.close();
+        });
 
-        sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpa.sent", receiver.getName().getString()));
-        receiver.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpa.received", sender.getName().getString()));
-        return 1;
+        ServerPlayerEvents.JOIN.register(this::onPlayerJoin);
+        ServerPlayerEvents.LEAVE.register(this::onPlayerLeave);
+        ServerLivingEntityEvents.AFTER_DEATH.register((entity, damageSource) -> {
+            if (entity instanceof ServerPlayerEntity player) interruptCountdown(player, true);
+        });
+
+        tickableTasks.putTask(new StaleRequestsCleanerTask());
+        tickableTasks.putTask(new MetricsExportTask(metricsExporter));
+        registerGauges();
+    }
+
+    public int teleportTo(ServerPlayerEntity sender, ServerPlayerEntity receiver) {
+        return sendRequest(sender, receiver, false) != null ? 1 : 0;
     }
 
     public int teleportHere(ServerPlayerEntity sender, ServerPlayerEntity receiver) {
+        return sendRequest(sender, receiver, true) != null ? 1 : 0;
+    }
+
+    /**
+     * Sends a /tpa (or, with {@code here}, a /tpahere) request from {@code sender} to {@code receiver}.
+     * Returns the request, or {@code null} if it was turned away, in which case the sender has been told why.
+     */
+    public @Nullable BaseRequest sendRequest(ServerPlayerEntity sender, ServerPlayerEntity receiver, boolean here) {
         if (sender.equals(receiver)) {
-            sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.tpa_to_self"));
-            return 0;
+            sender.sendMessage(MCTextUtils.fromLang(sender, LangKeys.ERROR_TPA_TO_SELF));
+            return null;
         }
 
-        PlayerData receiverData = getPlayerData(receiver.getUuid());
-        if (!receiverData.allowTeleportRequests) {
-            sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.tpa_not_allowed"));
-            return 0;
+        int receiverId = onlinePlayers.idOf(receiver.getUuid());
+        if (!onlinePlayers.isAcceptingRequests(receiverId)) {
+            sender.sendMessage(MCTextUtils.fromLang(sender, LangKeys.ERROR_TPA_NOT_ALLOWED));
+            return null;
         }
 
+        PlayerData receiverData = onlinePlayers.get(receiverId);
         if (receiverData.teleportRequests.containsKey(sender.getUuid())) {
-            sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.existing_request"));
-            return 0;
+            sender.sendMessage(MCTextUtils.fromLang(sender, LangKeys.ERROR_EXISTING_REQUEST));
+            return null;
         }
 
-        receiverData.teleportRequests.add(
-            sender.getUuid(),
-            new TPAHereRequest(sender, receiver)
-        );
+        int evictions = checkRequestLimits(sender, receiver, receiverData);
+        if (evictions < 0) return null;
+        evictForRequest(receiver, receiverData.teleportRequests, evictions);
 
-        sender.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpahere.sent", receiver.getName().getString()));
-        receiver.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpahere.received", sender.getName().getString()));
-        return 1;
+        BaseRequest request = here ? new TPAHereRequest(sender, receiver) : new TPARequest(sender, receiver);
+        submitRequest(receiverData, sender, request);
+        (here ? TPAMetrics.INSTANCE.tpaHereRequestsSent : TPAMetrics.INSTANCE.tpaRequestsSent).inc();
+
+        sender.sendMessage(MCTextUtils.fromLang(sender, here ? LangKeys.TPAHERE_SENT : LangKeys.TPA_SENT, receiver.getName().getString()));
+        receiver.sendMessage(MCTextUtils.fromLang(receiver, here ? LangKeys.TPAHERE_RECEIVED : LangKeys.TPA_RECEIVED, sender.getName().getString()));
+
+        TPAEvents.REQUEST_CREATED.invoker().onRequestCreated(request);
+        return request;
     }
 
     public int teleportBack(ServerPlayerEntity player) {
         PlayerData playerData = getPlayerData(player.getUuid());
-        if (playerData.isTeleportingLocked) {
-            player.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.you_are_teleporting"));
+        if (isTeleportingLocked(player.getUuid())) {
+            player.sendMessage(MCTextUtils.fromLang(player, LangKeys.ERROR_YOU_ARE_TELEPORTING));
             return 0;
         }
 
         if (playerData.previousTeleportPosition == null) {
-            player.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.no_back_location"));
+            player.sendMessage(MCTextUtils.fromLang(player, LangKeys.ERROR_NO_BACK_LOCATION));
             return 0;
         }
 
-        tickableTasks.putTask(
-            new TPABackRequest(player, playerData.previousTeleportPosition).accept()
-        );
+        startCountdown(new TPABackRequest(player, playerData.previousTeleportPosition));
         return 1;
     }
 
     public int acceptTeleport(ServerPlayerEntity accepter, @Nullable ServerPlayerEntity from) {
         PlayerData accepterData = getPlayerData(accepter.getUuid());
-        if (accepterData.isTeleportingLocked) {
-            accepter.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.you_are_teleporting"));
+        if (isTeleportingLocked(accepter.getUuid())) {
+            accepter.sendMessage(MCTextUtils.fromLang(accepter, LangKeys.ERROR_YOU_ARE_TELEPORTING));
             return 0;
         }
 
@@ -135,40 +257,49 @@ public class TeleportManager {
         if (from == null) {
             request = findFirstValidRequest(accepterData.teleportRequests);
             if (request == null) {
-                accepter.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.no_incoming_requests"));
+                accepter.sendMessage(MCTextUtils.fromLang(accepter, LangKeys.ERROR_NO_INCOMING_REQUESTS));
                 return 0;
             }
 
             from = request.getRequester();
-            if (getPlayerData(from.getUuid()).isTeleportingLocked) {
-                accepter.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.they_are_teleporting"));
+            if (isTeleportingLocked(from.getUuid())) {
+                accepter.sendMessage(MCTextUtils.fromLang(accepter, LangKeys.ERROR_THEY_ARE_TELEPORTING));
                 return 0;
             }
 
+            if (!allowAccept(request, accepter)) return 0;
             accepterData.teleportRequests.consume();
         } else {
             request = accepterData.teleportRequests.findByKey(from.getUuid());
             if (request == null || request.isExpired()) {
-                accepter.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.no_request_from_player", from.getName().getString()));
+                accepter.sendMessage(MCTextUtils.fromLang(accepter, LangKeys.ERROR_NO_REQUEST_FROM_PLAYER, from.getName().getString()));
                 return 0;
             }
 
-            if (getPlayerData(from.getUuid()).isTeleportingLocked) {
-                accepter.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.they_are_teleporting"));
+            if (isTeleportingLocked(from.getUuid())) {
+                accepter.sendMessage(MCTextUtils.fromLang(accepter, LangKeys.ERROR_THEY_ARE_TELEPORTING));
                 return 0;
             }
 
+            if (!allowAccept(request, accepter)) return 0;
             accepterData.teleportRequests.consumeByKey(from.getUuid());
         }
 
-        Pair<String, String> acceptedMessages = request.getAcceptedKeys();
-        if (acceptedMessages.second() != null)
-            accepter.sendMessage(MCTextUtils.fromLang(acceptedMessages.second(), from.getName().getString()));
+        RequestKeys keys = request.getKeys();
+        if (keys.acceptedReceiver() != null)
+            accepter.sendMessage(MCTextUtils.fromLang(accepter, keys.acceptedReceiver(), from.getName().getString()));
+
+        if (keys.acceptedSender() != null)
+            from.sendMessage(MCTextUtils.fromLang(from, keys.acceptedSender(), accepter.getName().getString()));
+
+        TPAMetrics.INSTANCE.requestsAccepted.inc();
+        TPAMetrics.INSTANCE.acceptLatency.record(System.currentTimeMillis() - request.getCreatedAt());
 
-        if (acceptedMessages.first() != null)
-            from.sendMessage(MCTextUtils.fromLang(acceptedMessages.first(), accepter.getName().getString()));
-        
-        tickableTasks.putTask(request.accept());
+        // an accepted request stays journaled until its countdown is over, see onCountdownFinished
+        if (requestJournal != null && isPersistent(request))
+            requestJournal.accepted(request.getRequester().getUuid(), accepter.getUuid(), journalKindOf(request), request.getCreatedAt());
+
+        startCountdown(request);
         return 1;
     }
 
@@ -179,7 +310,7 @@ public class TeleportManager {
         if (from == null) {
             request = findFirstValidRequest(denierData.teleportRequests);
             if (request == null) {
-                denier.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.no_incoming_requests"));
+                denier.sendMessage(MCTextUtils.fromLang(denier, LangKeys.ERROR_NO_INCOMING_REQUESTS));
                 return 0;
             }
 
@@ -188,93 +319,563 @@ public class TeleportManager {
         } else {
             request = denierData.teleportRequests.consumeByKey(from.getUuid());
             if (request == null || request.isExpired()) {
-                denier.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.no_request_from_player", from.getName().getString()));
+                if (request != null) request.complete(TeleportTask.Result.EXPIRED);
+                denier.sendMessage(MCTextUtils.fromLang(denier, LangKeys.ERROR_NO_REQUEST_FROM_PLAYER, from.getName().getString()));
                 return 0;
             }
         }
 
-        Pair<String, String> deniedMessages = request.getDeniedKeys();
-        if (deniedMessages.second() != null)
-            denier.sendMessage(MCTextUtils.fromLang(deniedMessages.second(), from.getName().getString()));
+        TPAMetrics.INSTANCE.requestsDenied.inc();
+        request.complete(TeleportTask.Result.DENIED);
+
+        RequestKeys keys = request.getKeys();
+        if (keys.deniedReceiver() != null)
+            denier.sendMessage(MCTextUtils.fromLang(denier, keys.deniedReceiver(), from.getName().getString()));
 
-        if (deniedMessages.first() != null)
-            from.sendMessage(MCTextUtils.fromLang(deniedMessages.first(), denier.getName().getString()));
+        if (keys.deniedSender() != null)
+            from.sendMessage(MCTextUtils.fromLang(from, keys.deniedSender(), denier.getName().getString()));
         return 1;
     }
 
     public int cancelTeleport(ServerPlayerEntity canceller, ServerPlayerEntity to) {
-        PlayerData toData = getPlayerData(to.getUuid());
+        if (!outgoingRequests.hasRequest(canceller.getUuid(), to.getUuid())) {
+            canceller.sendMessage(MCTextUtils.fromLang(canceller, LangKeys.ERROR_NO_REQUEST_TO_PLAYER, to.getName().getString()));
+            return 0;
+        }
 
-        BaseRequest request = toData.teleportRequests.consumeByKey(canceller.getUuid());
+        PlayerData targetData = findPlayerData(to.getUuid());
+        BaseRequest request = targetData != null ? targetData.teleportRequests.consumeByKey(canceller.getUuid()) : null;
         if (request == null || request.isExpired()) {
-            canceller.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.no_request_to_player", to.getName().getString()));
+            if (request != null) request.complete(TeleportTask.Result.EXPIRED);
+            canceller.sendMessage(MCTextUtils.fromLang(canceller, LangKeys.ERROR_NO_REQUEST_TO_PLAYER, to.getName().getString()));
             return 0;
         }
 
-        canceller.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpa.cancelled.canceller", to.getName().getString()));
-        to.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpa.cancelled.target", canceller.getName().getString()));
+        TPAMetrics.INSTANCE.requestsCancelled.inc();
+        request.complete(TeleportTask.Result.WITHDRAWN);
+        canceller.sendMessage(MCTextUtils.fromLang(canceller, LangKeys.TPA_CANCELLED_CANCELLER, to.getName().getString()));
+        to.sendMessage(MCTextUtils.fromLang(to, LangKeys.TPA_CANCELLED_TARGET, canceller.getName().getString()));
         return 1;
     }
 
     public int allowTeleport(ServerPlayerEntity self, Boolean newValue) {
-        PlayerData selfData = getPlayerData(self.getUuid());
+        int selfId = requireId(self.getUuid());
         if (newValue == null) {
-            self.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpa_allow.status", selfData.allowTeleportRequests));
+            self.sendMessage(MCTextUtils.fromLang(self, LangKeys.TPA_ALLOW_STATUS, onlinePlayers.isAcceptingRequests(selfId)));
             return 1;
         }
 
-        if (newValue == selfData.allowTeleportRequests) {
-            self.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.tpa_allow.nothing_changed"));
+        if (newValue == onlinePlayers.isAcceptingRequests(selfId)) {
+            self.sendMessage(MCTextUtils.fromLang(self, LangKeys.TPA_ALLOW_NOTHING_CHANGED));
             return 0;
         }
 
-        String messageKey = "bettertpa4fabric.message.tpa_allow." + ((newValue) ? "enabled" : "disabled");
-        self.sendMessage(MCTextUtils.fromLang(messageKey));
+        self.sendMessage(MCTextUtils.fromLang(self, newValue ? LangKeys.TPA_ALLOW_ENABLED : LangKeys.TPA_ALLOW_DISABLED));
 
-        selfData.allowTeleportRequests = newValue;
+        onlinePlayers.setAcceptingRequests(selfId, newValue);
+        savePlayerState(self);
+        if (newValue && isRealPlayer(self)) allowedPlayerNames.add(self.getUuid(), self.getNameForScoreboard());
+        else allowedPlayerNames.remove(self.getUuid());
         return 1;
     }
 
+    /** Queues a teleport for the end of this tick, see {@link TeleportBatch}. */
     public void doTeleport(
         ServerPlayerEntity player,
         ServerWorld world,
         BlockPos position
     ) {
-        world.getServer().executeSync(() -> {
-            // this is version sensitive!
-            player.getEntityWorld().getChunkManager().addChunkLoadingTicket(
-                TPA, player.getChunkPos(), 3
-            );
-
-            getPlayerData(player.getUuid()).previousTeleportPosition = Pair.of(player.getEntityWorld().getRegistryKey(), player.getBlockPos());
-
-            player.teleport(
-                world,
-                position.getX(), position.getY(), position.getZ(),
-                PositionFlag.DELTA,
-                player.getYaw(), player.getPitch(),
-                false
-            );
-
-            player.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.teleport.success"));
-        });
+        doTeleport(null, player, world, position, true);
+    }
+
+    /**
+     * {@code rememberBack} decides whether the position the player leaves from becomes their new /tpaback point.
+     * {@code request}, if there is one, completes with {@link TeleportTask.Result#SUCCESS} once the player has been moved.
+     */
+    public void doTeleport(
+        @Nullable BaseRequest request,
+        ServerPlayerEntity player,
+        ServerWorld world,
+        BlockPos position,
+        boolean rememberBack
+    ) {
+        TPAMetrics.INSTANCE.teleports.inc();
+        world.getServer().executeSync(() -> pendingTeleports.add(request, player, world, position, rememberBack));
+    }
+
+    /** Called by {@link BaseRequest#onCountdownResult} once an accepted request's countdown is over for good. */
+    public void onCountdownFinished(BaseRequest request) {
+        activeCountdowns--;
+        forgetCountdown(request.getTeleportingPlayer(), request);
+        if (request.getDestination() instanceof TeleportTarget.PlayerTarget destination)
+            forgetCountdown(destination.player(), request);
+
+        ServerPlayerEntity receiver = request.getTargetPlayer();
+        if (requestJournal != null && receiver != null && isPersistent(request))
+            requestJournal.finished(request.getRequester().getUuid(), receiver.getUuid());
+    }
+
+    /**
+     * Removes and returns the next pending request that expired before {@code now}.
+     * Index entries for requests that were already accepted, denied or cancelled are dropped here.
+     */
+    public @Nullable BaseRequest pollExpiredRequest(long now) {
+        BaseRequest request;
+        while ((request = requestExpiries.pollExpired(now)) != null) {
+            if (!isPending(request)) continue;
+
+            // tpaExpireTime was raised since this was indexed
+            if (!request.isExpired()) {
+                requestExpiries.add(request.getExpiresAt(), request);
+                continue;
+            }
+
+            onlinePlayers.get(request.getTargetPlayer().getUuid()).teleportRequests.consumeByKey(request.getRequester().getUuid());
+            return request;
+        }
+        return null;
+    }
+
+    /** Tells both sides that {@code request} expired. It must already be out of the receiver's queue. */
+    public void notifyExpired(BaseRequest request) {
+        TPAMetrics.INSTANCE.requestsExpired.inc();
+        request.complete(TeleportTask.Result.EXPIRED);
+
+        RequestKeys keys = request.getKeys();
+        ServerPlayerEntity receiver = request.getTargetPlayer();
+        if (keys.expiredSender() != null && request.getRequester().networkHandler.isConnectionOpen()) {
+            request.getRequester().sendMessage(MCTextUtils.fromLang(
+                request.getRequester(), keys.expiredSender(),
+                receiver != null ? receiver.getName().getString() : "?"
+            ));
+        }
+
+        if (receiver != null && keys.expiredReceiver() != null && receiver.networkHandler.isConnectionOpen()) {
+            receiver.sendMessage(MCTextUtils.fromLang(
+                receiver, keys.expiredReceiver(),
+                request.getRequester().getName().getString()
+            ));
+        }
     }
 
+    /**
+     * The data of an online player. Only call this for players that are known
+     * to be online (e.g. a command's source); anything else should use
+     * {@link #findPlayerData(UUID)}.
+     */
     public PlayerData getPlayerData(UUID key) {
-        return playerDatas.computeIfAbsent(key, k -> new PlayerData());
+        PlayerData data = onlinePlayers.get(key);
+        if (data != null) return data;
+
+        // online but never went through JOIN, e.g. the mod was hot-loaded; adopt them now
+        data = new PlayerData(key, requestListener);
+        onlinePlayers.join(key, data);
+        return data;
+    }
+
+    /** The data of an online player, or {@code null}. Never creates anything. */
+    public @Nullable PlayerData findPlayerData(UUID key) {
+        return onlinePlayers.get(key);
+    }
+
+    public boolean isTeleportingLocked(UUID player) {
+        return onlinePlayers.isTeleportingLocked(onlinePlayers.idOf(player));
+    }
+
+    /** Whether the player is online and accepting requests. */
+    public boolean isAcceptingRequests(UUID player) {
+        return onlinePlayers.isAcceptingRequests(onlinePlayers.idOf(player));
+    }
+
+    /** Sets the countdown lock of an online player. Does nothing for players who already left. */
+    public void setTeleportingLocked(UUID player, boolean locked) {
+        onlinePlayers.setTeleportingLocked(onlinePlayers.idOf(player), locked);
+    }
+
+    /** How many {@link PlayerData}s are in memory, online players plus recently left ones. */
+    public int getResidentPlayerDataCount() {
+        return onlinePlayers.size() + recentlyLeft.size();
+    }
+
+    /** Forgets recently left players that have been gone for too long. */
+    public void evictRetainedPlayerData() {
+        recentlyLeft.evictExpired(System.currentTimeMillis());
+    }
+
+    public boolean hasOutgoingRequest(UUID sender, UUID target) {
+        return outgoingRequests.hasRequest(sender, target);
+    }
+
+    public ObjectSet<UUID> getOutgoingRequestTargets(UUID sender) {
+        return outgoingRequests.getTargets(sender);
+    }
+
+    /** What tab completion serves from. Safe to read off the server thread; it's at most a tick behind. */
+    public SuggestionSnapshot getSuggestions() {
+        return suggestions;
+    }
+
+    /** Online players by dense id, for scans that want to skip the UUID lookups. */
+    public OnlinePlayers getOnlinePlayers() {
+        return onlinePlayers;
+    }
+
+    /** The budget deferrable tasks are running under this tick. */
+    public TickBudget getTickBudget() {
+        return tickableTasks.getBudget();
+    }
+
+    public CountdownDisplays getCountdownDisplays() {
+        return countdownDisplays;
+    }
+
+    /** Samples every run of the tick handler into {@code profiler}, or stops sampling when {@code null}. */
+    public void setTickProfiler(@Nullable TickProfiler profiler) {
+        this.tickProfiler = profiler;
+    }
+
+    public void onPlayerJoin(ServerPlayerEntity player) {
+        PlayerData data = recentlyLeft.take(player.getUuid(), System.currentTimeMillis());
+        boolean reconnected = data != null;
+        if (!reconnected) data = new PlayerData(player.getUuid(), requestListener);
+
+        PlayerState saved = !reconnected && playerStates != null && isRealPlayer(player) ? playerStates.get(player.getUuid()) : null;
+        if (saved != null) {
+            data.allowTeleportRequests = saved.allowTeleportRequests();
+            data.previousTeleportPosition = saved.previousTeleportPosition();
+        }
+
+        // starts out unlocked, any countdown they had died with their old entity
+        int id = onlinePlayers.join(player.getUuid(), data);
+        // relogging doesn't refill the bucket; a fresh PlayerData starts it full
+        requestRateLimiter.set(id, data.requestRateLimitState);
+
+        restoreJournaledRequests(player);
+
+        if (data.allowTeleportRequests && isRealPlayer(player)) allowedPlayerNames.add(player.getUuid(), player.getNameForScoreboard());
+    }
+
+    public void onPlayerLeave(ServerPlayerEntity player) {
+        interruptCountdown(player, false);
+
+        allowedPlayerNames.remove(player.getUuid());
+        countdownDisplays.forget(player.getUuid());
+
+        int id = onlinePlayers.idOf(player.getUuid());
+        PlayerData data = onlinePlayers.leave(player.getUuid());
+        if (data != null) {
+            data.requestRateLimitState = requestRateLimiter.get(id);
+            requestRateLimiter.set(id, 0); // the id gets recycled
+            BaseRequest received;
+            while ((received = data.teleportRequests.consume()) != null) received.complete(TeleportTask.Result.WITHDRAWN);
+            recentlyLeft.put(player.getUuid(), data, System.currentTimeMillis());
+        }
+
+        // requests they sent can't be accepted anymore once their entity is gone
+        for (UUID target : outgoingRequests.removeSender(player.getUuid())) {
+            PlayerData targetData = onlinePlayers.get(target);
+            BaseRequest sent = targetData != null ? targetData.teleportRequests.consumeByKey(player.getUuid()) : null;
+            if (sent != null) sent.complete(TeleportTask.Result.WITHDRAWN);
+        }
+    }
+
+    /** Asks {@link TPAEvents#ALLOW_ACCEPT} whether {@code request} may be accepted, telling the accepter if it may not. */
+    private boolean allowAccept(BaseRequest request, ServerPlayerEntity accepter) {
+        if (TPAEvents.ALLOW_ACCEPT.invoker().allowAccept(request, accepter)) return true;
+
+        accepter.sendMessage(MCTextUtils.fromLang(accepter, LangKeys.ERROR_ACCEPT_BLOCKED));
+        return false;
+    }
+
+    private void startCountdown(BaseRequest request) {
+        TaskHandle handle = tickableTasks.putTask(request.accept());
+        activeCountdowns++;
+        TPAMetrics.INSTANCE.countdownsStarted.inc();
+
+        // both players are locked until it's over, so neither can be in another countdown
+        PlayerData teleporting = findPlayerData(request.getTeleportingPlayer().getUuid());
+        if (teleporting != null) teleporting.activeCountdown = handle;
+
+        if (request.getDestination() instanceof TeleportTarget.PlayerTarget destination) {
+            PlayerData destinationData = findPlayerData(destination.player().getUuid());
+            if (destinationData != null) destinationData.activeCountdown = handle;
+        }
+    }
+
+    /** Cancels the countdown {@code player} is part of, if any, because they died or left. */
+    private void interruptCountdown(ServerPlayerEntity player, boolean died) {
+        PlayerData data = findPlayerData(player.getUuid());
+        if (data == null || data.activeCountdown == null) return;
+
+        TaskHandle handle = data.activeCountdown;
+        if (!handle.isActive()) {
+            data.activeCountdown = null;
+            return;
+        }
+
+        TeleportTask task = (TeleportTask) handle.getTask();
+        boolean teleporting = task.getRequester().getUuid().equals(player.getUuid());
+
+        handle.cancel();
+        task.interrupt(teleporting
+            ? (died ? TeleportTask.Result.REQUESTER_DIED : TeleportTask.Result.REQUESTER_LEFT)
+            : (died ? TeleportTask.Result.TARGET_DIED : TeleportTask.Result.TARGET_LEFT)
+        );
+    }
+
+    private void forgetCountdown(ServerPlayerEntity player, BaseRequest request) {
+        PlayerData data = findPlayerData(player.getUuid());
+        if (data == null || data.activeCountdown == null) return;
+
+        if (((TeleportTask) data.activeCountdown.getTask()).getRequest() == request) data.activeCountdown = null;
+    }
+
+    /** Queues the persistent part of {@code player}'s data to be written to disk. Call after changing it. */
+    public void savePlayerState(ServerPlayerEntity player) {
+        int id = onlinePlayers.idOf(player.getUuid());
+        PlayerData data = onlinePlayers.get(id);
+        if (playerStates == null || data == null || !isRealPlayer(player)) return;
+
+        playerStates.put(new PlayerState(player.getUuid(), onlinePlayers.isAcceptingRequests(id), data.previousTeleportPosition));
+    }
+
+    // /tpabench's fake players come and go with every run: nothing about them is kept, and real players never see them
+    private static boolean isRealPlayer(ServerPlayerEntity player) {
+        return !(player instanceof FakePlayer);
+    }
+
+    private static boolean isPersistent(BaseRequest request) {
+        ServerPlayerEntity receiver = request.getTargetPlayer();
+        return isRealPlayer(request.getRequester()) && (receiver == null || isRealPlayer(receiver));
+    }
+
+    private void openStores(MinecraftServer server) {
+        Path directory = server.getSavePath(WorldSavePath.ROOT).resolve(BetterTPA4Fabric.MOD_ID);
+        try {
+            playerStates = PlayerStateStore.open(directory.resolve("players.log"));
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.error("Failed to open player state log, player settings won't be saved! " + e.toString());
+        }
+
+        try {
+            requestJournal = RequestJournal.open(directory.resolve("requests"), BetterTPA4Fabric.config().expireMillis());
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.error("Failed to open request journal, requests won't survive restarts! " + e.toString());
+            return;
+        }
+
+        for (RequestJournal.Entry entry : requestJournal.getRestored()) {
+            awaitingRestore.computeIfAbsent(entry.sender(), k -> new ObjectArrayList<>()).add(entry);
+            awaitingRestore.computeIfAbsent(entry.receiver(), k -> new ObjectArrayList<>()).add(entry);
+        }
+    }
+
+    private void closeStores() {
+        if (playerStates != null) {
+            playerStates.close();
+            playerStates = null;
+        }
+
+        if (requestJournal != null) {
+            requestJournal.close();
+            requestJournal = null;
+        }
+        awaitingRestore.clear();
+    }
+
+    /**
+     * Puts back journaled requests between {@code player} and anyone already
+     * online. Accepted requests come back as pending ones, their countdown
+     * has to be accepted again.
+     */
+    private void restoreJournaledRequests(ServerPlayerEntity player) {
+        ObjectArrayList<RequestJournal.Entry> entries = awaitingRestore.remove(player.getUuid());
+        if (entries == null) return;
+
+        PlayerManager players = player.getEntityWorld().getServer().getPlayerManager();
+        ObjectArrayList<RequestJournal.Entry> stillWaiting = new ObjectArrayList<>();
+
+        for (RequestJournal.Entry entry : entries) {
+            boolean isSender = entry.sender().equals(player.getUuid());
+            ServerPlayerEntity other = players.getPlayer(isSender ? entry.receiver() : entry.sender());
+            if (other == null) {
+                stillWaiting.add(entry);
+                continue;
+            }
+
+            ObjectArrayList<RequestJournal.Entry> otherEntries = awaitingRestore.get(other.getUuid());
+            if (otherEntries != null) otherEntries.remove(entry);
+
+            ServerPlayerEntity sender = isSender ? player : other;
+            ServerPlayerEntity receiver = isSender ? other : player;
+            restoreRequest(entry, sender, receiver);
+        }
+
+        if (!stillWaiting.isEmpty()) awaitingRestore.put(player.getUuid(), stillWaiting);
+    }
+
+    private void restoreRequest(RequestJournal.Entry entry, ServerPlayerEntity sender, ServerPlayerEntity receiver) {
+        PlayerData receiverData = getPlayerData(receiver.getUuid());
+        boolean here = entry.kind() == RequestJournal.Kind.TPA_HERE;
+        BaseRequest request = here
+            ? new TPAHereRequest(sender, receiver, entry.createdAt())
+            : new TPARequest(sender, receiver, entry.createdAt());
+
+        if (
+            request.isExpired() || !isAcceptingRequests(receiver.getUuid()) ||
+            receiverData.teleportRequests.containsKey(sender.getUuid()) ||
+            !requestLimits.hasRoomForRestored(receiverData.teleportRequests, BetterTPA4Fabric.config())
+        ) {
+            if (requestJournal != null) requestJournal.closed(sender.getUuid(), receiver.getUuid());
+            return;
+        }
+
+        submitRequest(receiverData, sender, request);
+        receiver.sendMessage(MCTextUtils.fromLang(receiver, here ? LangKeys.TPAHERE_RECEIVED : LangKeys.TPA_RECEIVED, sender.getName().getString()));
+    }
+
+    private static RequestJournal.Kind journalKindOf(BaseRequest request) {
+        return request instanceof TPAHereRequest ? RequestJournal.Kind.TPA_HERE : RequestJournal.Kind.TPA;
+    }
+
+    private void flushTeleports() {
+        if (pendingTeleports.isEmpty()) return;
+
+        long start = System.nanoTime();
+        pendingTeleports.flush(rememberBackPosition, afterTeleport, LangKeys.TELEPORT_SUCCESS);
+        TPAMetrics.INSTANCE.teleportFlushDuration.recordSince(start);
+    }
+
+    /** Catches up with a reloaded config on the server thread. */
+    private void applyConfig(ConfigSnapshot config) {
+        ConfigSnapshot previous = appliedConfig;
+        appliedConfig = config;
+
+        // suggestions carry each request's deadline
+        allowedPlayerNames.invalidate();
+
+        // a longer expiry is noticed when the old deadline comes up, a shorter one has to move deadlines forward
+        if (previous != null && config.expireMillis() < previous.expireMillis()) {
+            requestExpiries.clear();
+            for (int id = 0; id < onlinePlayers.getIdLimit(); id++) {
+                PlayerData data = onlinePlayers.get(id);
+                if (data == null) continue;
+
+                for (BaseRequest request : data.teleportRequests.values()) requestExpiries.add(request.getExpiresAt(), request);
+            }
+        }
+    }
+
+    private void publishSuggestions() {
+        SuggestionSnapshot.Builder builder = new SuggestionSnapshot.Builder();
+        allowedPlayerNames.copyTo(builder);
+
+        for (int id = 0; id < onlinePlayers.getIdLimit(); id++) {
+            PlayerData data = onlinePlayers.get(id);
+            if (data == null || data.teleportRequests.isEmpty()) continue;
+
+            for (BaseRequest request : data.teleportRequests.values()) {
+                ServerPlayerEntity sender = request.getRequester();
+                ServerPlayerEntity receiver = request.getTargetPlayer();
+                if (receiver == null || !sender.networkHandler.isConnectionOpen()) continue;
+
+                builder.request(
+                    sender.getUuid(), sender.getNameForScoreboard(),
+                    receiver.getUuid(), receiver.getNameForScoreboard(),
+                    request.getExpiresAt()
+                );
+            }
+        }
+
+        suggestions = builder.build();
+        suggestionsVersion = allowedPlayerNames.getVersion();
+    }
+
+    private long tickBudgetNanos(long now) {
+        long configured = BetterTPA4Fabric.config().tickBudgetNanos();
+        if (configured <= 0) return Long.MAX_VALUE;
+
+        // on a tick that's already heavy, give up our share rather than make it heavier
+        return Math.min(configured, Math.max(0, TICK_TARGET_NANOS - (now - tickStartNanos)));
+    }
+
+    private void registerGauges() {
+        TPAMetrics metrics = TPAMetrics.INSTANCE;
+        metrics.gauge("online_players", "Players with their data loaded as online", onlinePlayers::size);
+        metrics.gauge("retained_players", "Recently left players whose data is still kept", recentlyLeft::size);
+        metrics.gauge("pending_requests", "Requests waiting to be answered", requestLimits::getPendingRequests);
+        metrics.gauge("expiry_index_entries", "Entries in the request expiry index, including stale ones", requestExpiries::size);
+        metrics.gauge("active_countdowns", "Teleport countdowns running", () -> activeCountdowns);
+        metrics.gauge("scheduled_tasks", "Tasks scheduled on the tick processor", tickableTasks::getTaskCount);
+        metrics.gauge("deferred_tasks", "Deferrable tasks pushed to the next tick for lack of budget", tickableTasks::getDeferredTaskCount);
+    }
+
+    private void submitRequest(PlayerData receiverData, ServerPlayerEntity sender, BaseRequest request) {
+        receiverData.teleportRequests.add(sender.getUuid(), request);
+        requestExpiries.add(request.getExpiresAt(), request);
+
+        // evicted and answered requests leave their entries behind until they'd have expired, don't let those pile up
+        if (requestExpiries.size() > 2 * requestLimits.getPendingRequests() + EXPIRY_INDEX_SLACK) requestExpiries.retain(this::isPending);
+    }
+
+    /**
+     * Checks a new request from {@code sender} against the request limits and the sender's
+     * cooldown. Returns how many of the receiver's requests have to make way for it (see
+     * {@link #evictForRequest}), or -1 after telling the sender that it can't be sent.
+     */
+    private int checkRequestLimits(ServerPlayerEntity sender, ServerPlayerEntity receiver, PlayerData receiverData) {
+        int evictions = requestLimits.admit(
+            receiverData.teleportRequests, onlinePlayers.idOf(sender.getUuid()), System.currentTimeMillis(), BetterTPA4Fabric.config()
+        );
+        if (evictions >= 0) return evictions;
+
+        switch (evictions) {
+            case RequestLimits.RECEIVER_FULL -> {
+                TPAMetrics.INSTANCE.requestsRejectedReceiverFull.inc();
+                sender.sendMessage(MCTextUtils.fromLang(sender, LangKeys.ERROR_RECEIVER_REQUEST_LIMIT, receiver.getName().getString()));
+            }
+            case RequestLimits.SERVER_FULL -> {
+                TPAMetrics.INSTANCE.requestsRejectedServerFull.inc();
+                sender.sendMessage(MCTextUtils.fromLang(sender, LangKeys.ERROR_SERVER_REQUEST_LIMIT));
+            }
+            case RequestLimits.RATE_LIMITED -> {
+                TPAMetrics.INSTANCE.requestsRateLimited.inc();
+                sender.sendMessage(MCTextUtils.fromLang(sender, LangKeys.ERROR_ON_COOLDOWN, (requestLimits.getRetryAfterMillis() + 999) / 1000));
+            }
+        }
+
+        return -1;
     }
 
-    public Stream<Map.Entry<UUID, PlayerData>> streamPlayerDatas() {
-        return playerDatas.entrySet().stream();
+    /** Drops the {@code evictions} oldest requests in {@code receiver}'s queue, as counted by {@link #checkRequestLimits}. */
+    private void evictForRequest(ServerPlayerEntity receiver, RequestQueue<UUID, BaseRequest> queue, int evictions) {
+        for (int i = 0; i < evictions; i++) {
+            BaseRequest evicted = queue.consume();
+            if (evicted.isExpired()) {
+                notifyExpired(evicted);
+                continue;
+            }
+
+            TPAMetrics.INSTANCE.requestsEvicted.inc();
+            evicted.complete(TeleportTask.Result.WITHDRAWN);
+            evicted.getRequester().sendMessage(MCTextUtils.fromLang(
+                evicted.getRequester(), LangKeys.ERROR_REQUEST_EVICTED, receiver.getName().getString()
+            ));
+        }
     }
 
-    public ObjectCollection<PlayerData> getPlayerDatas() {
-        return playerDatas.values();
+    /** Whether {@code request} is still waiting in its receiver's queue. */
+    private boolean isPending(BaseRequest request) {
+        ServerPlayerEntity receiver = request.getTargetPlayer();
+        if (receiver == null) return false;
+
+        PlayerData receiverData = onlinePlayers.get(receiver.getUuid());
+        return receiverData != null && receiverData.teleportRequests.findByKey(request.getRequester().getUuid()) == request;
     }
 
     private @Nullable BaseRequest findFirstValidRequest(RequestQueue<UUID, BaseRequest> queue) {
         while (!queue.isEmpty()) {
-            BaseRequest candidate = queue.firstEntry().getValue();
+            BaseRequest candidate = queue.findByKey(queue.firstKey());
             if (candidate == null) {
                 queue.consume();
                 continue;
@@ -282,6 +883,7 @@ public class TeleportManager {
 
             if (candidate.isExpired()) {
                 queue.consume();
+                candidate.complete(TeleportTask.Result.EXPIRED);
                 continue;
             }
 
@@ -289,4 +891,12 @@ public class TeleportManager {
         }
         return null;
     }
+
+    private int requireId(UUID onlinePlayer) {
+        int id = onlinePlayers.idOf(onlinePlayer);
+        if (id != OnlinePlayers.NONE) return id;
+
+        getPlayerData(onlinePlayer);
+        return onlinePlayers.idOf(onlinePlayer);
+    }
 }
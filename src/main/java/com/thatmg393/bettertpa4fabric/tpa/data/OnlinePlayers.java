@@ -0,0 +1,106 @@
+package com.thatmg393.bettertpa4fabric.tpa.data;
+
+import java.util.BitSet;
+import java.util.UUID;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * Online players under small dense int ids, handed out on join and recycled
+ * on leave. Hot per-player flags live in bitsets indexed by that id, and the
+ * {@link PlayerData}s in a plain array, so checks and scans don't go through
+ * a map entry per player. A {@code UUID} only has to be translated once, at
+ * the edge, with {@link #idOf(UUID)}.
+ */
+public class OnlinePlayers {
+    public static final int NONE = -1;
+
+    private final Object2IntOpenHashMap<UUID> ids = new Object2IntOpenHashMap<>();
+    private final IntArrayList freeIds = new IntArrayList();
+
+    private PlayerData[] datas = new PlayerData[64];
+    private int idLimit = 0;
+
+    private final BitSet acceptingRequests = new BitSet();
+    private final BitSet teleportingLocked = new BitSet();
+
+    public OnlinePlayers() {
+        ids.defaultReturnValue(NONE);
+    }
+
+    /** Gives the player an id and takes their flags from {@code data}. Returns the id. */
+    public int join(UUID player, PlayerData data) {
+        int id = ids.getInt(player);
+        if (id == NONE) {
+            id = freeIds.isEmpty() ? idLimit++ : freeIds.popInt();
+            ids.put(player, id);
+        }
+
+        if (id >= datas.length) {
+            PlayerData[] grown = new PlayerData[Math.max(datas.length * 2, id + 1)];
+            System.arraycopy(datas, 0, grown, 0, datas.length);
+            datas = grown;
+        }
+
+        datas[id] = data;
+        acceptingRequests.set(id, data.allowTeleportRequests);
+        teleportingLocked.clear(id);
+        return id;
+    }
+
+    /** Frees the player's id, writing their flags back into the returned data first. */
+    public @Nullable PlayerData leave(UUID player) {
+        int id = ids.removeInt(player);
+        if (id == NONE) return null;
+
+        PlayerData data = datas[id];
+        data.allowTeleportRequests = acceptingRequests.get(id);
+
+        datas[id] = null;
+        acceptingRequests.clear(id);
+        teleportingLocked.clear(id);
+        freeIds.add(id);
+        return data;
+    }
+
+    /** The player's id, or {@link #NONE} if they're offline. */
+    public int idOf(UUID player) {
+        return ids.getInt(player);
+    }
+
+    public @Nullable PlayerData get(UUID player) {
+        return get(ids.getInt(player));
+    }
+
+    public @Nullable PlayerData get(int id) {
+        return id < 0 || id >= idLimit ? null : datas[id];
+    }
+
+    public boolean isAcceptingRequests(int id) {
+        return id >= 0 && acceptingRequests.get(id);
+    }
+
+    public void setAcceptingRequests(int id, boolean accepting) {
+        if (id >= 0) acceptingRequests.set(id, accepting);
+    }
+
+    public boolean isTeleportingLocked(int id) {
+        return id >= 0 && teleportingLocked.get(id);
+    }
+
+    public void setTeleportingLocked(int id, boolean locked) {
+        if (id >= 0) teleportingLocked.set(id, locked);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    /** One past the highest id ever handed out; scans go from 0 up to this and skip {@code null}s. */
+    public int getIdLimit() {
+        return idLimit;
+    }
+}
@@ -5,19 +5,28 @@ import java.util.UUID;
 import org.jetbrains.annotations.Nullable;
 
 import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueue;
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueueListener;
 import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
-
-import it.unimi.dsi.fastutil.Pair;
-import net.minecraft.registry.RegistryKey;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.TaskHandle;
 
 public class PlayerData {
-    public final RequestQueue<UUID, BaseRequest> teleportRequests = new RequestQueue<>();
-    
+    public final RequestQueue<UUID, BaseRequest> teleportRequests;
+
+    @Nullable
+    public TeleportTarget.PositionTarget previousTeleportPosition;
+
+    // the countdown this player is teleporting in or being teleported to, for death and leave events
     @Nullable
-    public Pair<RegistryKey<World>, BlockPos> previousTeleportPosition;
+    public TaskHandle activeCountdown;
 
-    public boolean isTeleportingLocked = false;
+    // only up to date while the player is offline, online players' flags live in OnlinePlayers
     public boolean allowTeleportRequests = true;
+
+    // only up to date while the player is offline, see RequestRateLimiter
+    public long requestRateLimitState;
+
+    public PlayerData(UUID owner, RequestQueueListener<UUID, ? super BaseRequest> requestListener) {
+        this.teleportRequests = new RequestQueue<>(owner, requestListener);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.thatmg393.bettertpa4fabric.tpa.data;
+
+import java.util.UUID;
+
+import org.jetbrains.annotations.Nullable;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+
+/**
+ * Keeps the {@link PlayerData} of players who just left around for a while,
+ * so a quick reconnect picks up where it left off. Bounded both by entry
+ * count and by how long ago the player left; the oldest leave goes first.
+ */
+public class RecentlyLeftPlayers {
+    private final int maxSize;
+    private final long maxAgeMillis;
+
+    // insertion order is leave order, so the head is always the oldest entry
+    private final Object2ObjectLinkedOpenHashMap<UUID, Retained> retained = new Object2ObjectLinkedOpenHashMap<>();
+
+    public RecentlyLeftPlayers(int maxSize, long maxAgeMillis) {
+        this.maxSize = maxSize;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    public void put(UUID player, PlayerData data, long now) {
+        retained.remove(player);
+        retained.put(player, new Retained(data, now));
+
+        while (retained.size() > maxSize) retained.removeFirst();
+    }
+
+    /** Takes the player's data back out, or {@code null} if it was never kept or already evicted. */
+    public @Nullable PlayerData take(UUID player, long now) {
+        Retained entry = retained.remove(player);
+        if (entry == null || now - entry.leftAt() > maxAgeMillis) return null;
+        return entry.data();
+    }
+
+    public void evictExpired(long now) {
+        while (!retained.isEmpty() && now - retained.get(retained.firstKey()).leftAt() > maxAgeMillis) {
+            retained.removeFirst();
+        }
+    }
+
+    public int size() {
+        return retained.size();
+    }
+
+    private record Retained(PlayerData data, long leftAt) { }
+}
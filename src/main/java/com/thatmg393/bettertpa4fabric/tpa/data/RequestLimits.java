@@ -0,0 +1,88 @@
+package com.thatmg393.bettertpa4fabric.tpa.data;
+
+import com.thatmg393.bettertpa4fabric.config.ConfigSnapshot;
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueue;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+
+/**
+ * Decides whether a new request fits under the per-player request limit,
+ * the server-wide limit and the sender's cooldown, and how many queued
+ * requests the overflow policy has to evict to make room for it. Keeps the
+ * server-wide count of pending requests, fed by the queues' listener.
+ * Server thread only.
+ */
+public class RequestLimits {
+    public static final int RATE_LIMITED = -1;
+    public static final int RECEIVER_FULL = -2;
+    public static final int SERVER_FULL = -3;
+
+    private final RequestRateLimiter rateLimiter;
+    private int pendingRequests;
+    private long retryAfterMillis;
+
+    public RequestLimits(RequestRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public void onRequestAdded() {
+        pendingRequests++;
+    }
+
+    public void onRequestRemoved() {
+        pendingRequests--;
+    }
+
+    public int getPendingRequests() {
+        return pendingRequests;
+    }
+
+    /**
+     * Checks whether {@code senderId} may add a request to {@code queue}. Returns how many
+     * of the oldest queued requests have to be evicted first, or {@link #RECEIVER_FULL},
+     * {@link #SERVER_FULL} or {@link #RATE_LIMITED}. The sender's token is only taken
+     * once the request is known to fit, so a request turned away for being over a limit
+     * doesn't count towards the cooldown. {@code senderId} may be {@link OnlinePlayers#NONE}
+     * for senders without a bucket, which are never rate limited.
+     */
+    public int admit(RequestQueue<?, ? extends BaseRequest> queue, int senderId, long now, ConfigSnapshot config) {
+        int evictions = Math.max(0, queue.size() - config.requestLimit() + 1);
+        if (evictions > 0 && countEvictable(queue, config, now, evictions) < evictions) return RECEIVER_FULL;
+
+        // whatever gets evicted frees up room server-wide as well
+        if (pendingRequests - evictions >= config.globalRequestLimit()) return SERVER_FULL;
+
+        if (senderId != OnlinePlayers.NONE) {
+            retryAfterMillis = rateLimiter.tryAcquire(senderId, now, config.cooldownMillis(), config.cooldownBurst());
+            if (retryAfterMillis > 0) return RATE_LIMITED;
+        }
+
+        return evictions;
+    }
+
+    /** How long the sender last turned away with {@link #RATE_LIMITED} has to wait. */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /** Restored requests are held to the same limits as new ones, but never push out a live request. */
+    public boolean hasRoomForRestored(RequestQueue<?, ?> queue, ConfigSnapshot config) {
+        return queue.size() < config.requestLimit() && pendingRequests < config.globalRequestLimit();
+    }
+
+    /** How many of the oldest requests in {@code queue}, up to {@code wanted}, the overflow policy lets go. */
+    private static int countEvictable(RequestQueue<?, ? extends BaseRequest> queue, ConfigSnapshot config, long now, int wanted) {
+        return switch (config.requestOverflowPolicy()) {
+            case EVICT_OLDEST -> Math.min(queue.size(), wanted);
+            case EVICT_EXPIRED_FIRST -> {
+                // requests are queued in the order they were sent, so expired ones sit at the front
+                int expired = 0;
+                for (BaseRequest request : queue.values()) {
+                    if (expired == wanted || request.getCreatedAt() + config.expireMillis() >= now) break;
+                    expired++;
+                }
+                yield expired;
+            }
+            case REJECT_NEWEST -> 0;
+        };
+    }
+}
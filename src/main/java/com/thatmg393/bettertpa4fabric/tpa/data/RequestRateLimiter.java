@@ -0,0 +1,45 @@
+package com.thatmg393.bettertpa4fabric.tpa.data;
+
+import java.util.Arrays;
+
+/**
+ * Per-sender token bucket over {@link OnlinePlayers} ids. Each bucket is a
+ * single long, the time its next token is due (the GCRA form of a token
+ * bucket), so a check is an array read, some arithmetic and maybe a write;
+ * no objects, no locks. Server thread only.
+ */
+public class RequestRateLimiter {
+    private long[] readyAt = new long[64];
+
+    /**
+     * Takes a token from {@code id}'s bucket, which refills one token per
+     * {@code intervalMillis} and holds up to {@code burst}. Returns {@code 0}
+     * if the token was taken, otherwise how many millis until one is available.
+     */
+    public long tryAcquire(int id, long now, long intervalMillis, int burst) {
+        if (intervalMillis <= 0) return 0;
+        ensureCapacity(id);
+
+        long due = Math.max(readyAt[id], now) + intervalMillis;
+        long over = due - now - Math.max(1, burst) * intervalMillis;
+        if (over > 0) return over;
+
+        readyAt[id] = due;
+        return 0;
+    }
+
+    /** The bucket's state, to carry it over while the player is offline. */
+    public long get(int id) {
+        return id < readyAt.length ? readyAt[id] : 0;
+    }
+
+    /** Restores a bucket saved with {@link #get(int)}, or resets it with {@code 0}. */
+    public void set(int id, long state) {
+        ensureCapacity(id);
+        readyAt[id] = state;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id >= readyAt.length) readyAt = Arrays.copyOf(readyAt, Math.max(readyAt.length * 2, id + 1));
+    }
+}
@@ -0,0 +1,178 @@
+package com.thatmg393.bettertpa4fabric.tpa.display;
+
+import java.util.UUID;
+
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+import com.thatmg393.bettertpa4fabric.config.data.CountdownDisplayMode;
+import com.thatmg393.bettertpa4fabric.utils.LangKeys;
+import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.entity.boss.BossBar;
+import net.minecraft.entity.boss.ServerBossBar;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+/**
+ * Shows teleport countdowns in chat, on the action bar or on a boss bar
+ * (see {@link CountdownDisplayMode}). Tasks report their progress whenever
+ * they wake up (see {@link #ticksUntilChange}), a player only gets a packet
+ * when what they see would actually change, and everything changed during
+ * a tick is sent in one {@link #flush()}.
+ */
+public class CountdownDisplays {
+    // the boss bar moves in steps this big instead of every tick
+    private static final int BOSS_BAR_STEPS = 20;
+
+    private final Object2ObjectOpenHashMap<UUID, Display> displays = new Object2ObjectOpenHashMap<>();
+    private final ObjectArrayList<Display> dirty = new ObjectArrayList<>();
+
+    /** Reports {@code ticksLeft} out of {@code totalTicks} for {@code player}'s countdown. */
+    public void update(ServerPlayerEntity player, long ticksLeft, long totalTicks) {
+        Display display = displays.get(player.getUuid());
+        if (display == null) {
+            display = new Display(player);
+            displays.put(player.getUuid(), display);
+        }
+
+        display.player = player;
+        display.seconds = (int) ((ticksLeft + 19) / 20);
+        display.step = totalTicks <= 0 ? 0 : (int) (ticksLeft * BOSS_BAR_STEPS / totalTicks);
+        display.cleared = false;
+
+        if (display.seconds != display.shownSeconds || display.step != display.shownStep) markDirty(display);
+    }
+
+    /**
+     * How many ticks a countdown at {@code ticksLeft} can go without reporting before
+     * what the player sees changes, so countdowns don't have to wake up every tick.
+     */
+    public static long ticksUntilChange(long ticksLeft, long totalTicks) {
+        return ticksUntilChange(ticksLeft, totalTicks, BetterTPA4Fabric.config().countdownDisplay() == CountdownDisplayMode.BOSS_BAR);
+    }
+
+    /** {@link #ticksUntilChange(long, long)} for a given display, without reading the config. */
+    public static long ticksUntilChange(long ticksLeft, long totalTicks, boolean bossBar) {
+        if (ticksLeft <= 1) return 1;
+
+        // seconds are rounded up, so they change once ticksLeft drops to the previous multiple of 20
+        long untilChange = ticksLeft - ((ticksLeft - 1) / 20) * 20;
+
+        if (bossBar && totalTicks > 0) {
+            long step = ticksLeft * BOSS_BAR_STEPS / totalTicks;
+            if (step > 0) {
+                long lastTickOfStep = (step * totalTicks + BOSS_BAR_STEPS - 1) / BOSS_BAR_STEPS;
+                untilChange = Math.min(untilChange, ticksLeft - lastTickOfStep + 1);
+            }
+        }
+
+        return Math.max(1, untilChange);
+    }
+
+    /** Hides {@code player}'s countdown, if they have one. */
+    public void clear(ServerPlayerEntity player) {
+        Display display = displays.get(player.getUuid());
+        if (display == null) return;
+
+        display.cleared = true;
+        markDirty(display);
+    }
+
+    /** Drops a disconnecting player's display without sending them anything. */
+    public void forget(UUID player) {
+        Display display = displays.remove(player);
+        if (display == null) return;
+
+        if (display.bossBar != null) display.bossBar.clearPlayers();
+        display.bossBar = null;
+        display.shownSeconds = -1;
+        display.cleared = true; // it may still be queued for this tick's flush
+    }
+
+    public void flush() {
+        if (dirty.isEmpty()) return;
+
+        CountdownDisplayMode mode = BetterTPA4Fabric.config().countdownDisplay();
+        for (Display display : dirty) {
+            display.queued = false;
+
+            if (display.cleared) {
+                hide(display);
+                displays.remove(display.player.getUuid(), display);
+                continue;
+            }
+
+            show(display, mode);
+        }
+
+        dirty.clear();
+    }
+
+    private void markDirty(Display display) {
+        if (display.queued) return;
+
+        display.queued = true;
+        dirty.add(display);
+    }
+
+    private void show(Display display, CountdownDisplayMode mode) {
+        ServerPlayerEntity player = display.player;
+        boolean secondsChanged = display.seconds != display.shownSeconds;
+
+        switch (mode) {
+            case CHAT -> {
+                if (secondsChanged) player.sendMessage(countdownText(display));
+            }
+            case ACTION_BAR -> {
+                if (secondsChanged) player.sendMessage(countdownText(display), true);
+            }
+            case BOSS_BAR -> {
+                if (display.bossBar == null) {
+                    display.bossBar = new ServerBossBar(countdownText(display), BossBar.Color.GREEN, BossBar.Style.NOTCHED_20);
+                    display.bossBar.addPlayer(player);
+                } else if (secondsChanged) {
+                    display.bossBar.setName(countdownText(display));
+                }
+
+                display.bossBar.setPercent((float) display.step / BOSS_BAR_STEPS);
+            }
+        }
+
+        display.shownSeconds = display.seconds;
+        display.shownStep = display.step;
+    }
+
+    private void hide(Display display) {
+        if (display.bossBar != null) {
+            display.bossBar.clearPlayers();
+            display.bossBar = null;
+        }
+
+        // don't leave a stale "Teleporting in 1s..." sitting on the action bar
+        if (display.shownSeconds != -1 && BetterTPA4Fabric.config().countdownDisplay() == CountdownDisplayMode.ACTION_BAR) {
+            display.player.sendMessage(Text.empty(), true);
+        }
+    }
+
+    private static Text countdownText(Display display) {
+        return MCTextUtils.fromLang(display.player, LangKeys.TELEPORT_COUNTDOWN, display.seconds);
+    }
+
+    private static class Display {
+        ServerPlayerEntity player;
+        ServerBossBar bossBar;
+
+        int seconds;
+        int step;
+        int shownSeconds = -1;
+        int shownStep = -1;
+
+        boolean cleared;
+        boolean queued;
+
+        Display(ServerPlayerEntity player) {
+            this.player = player;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.thatmg393.bettertpa4fabric.tpa.queue;
+
+import java.util.UUID;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectSets;
+
+/**
+ * Reverse index of every {@link RequestQueue}: sender -> receivers that
+ * currently hold a request from that sender.
+ */
+public class OutgoingRequestIndex implements RequestQueueListener<UUID, Object> {
+    private final Object2ObjectOpenHashMap<UUID, ObjectOpenHashSet<UUID>> targetsBySender = new Object2ObjectOpenHashMap<>();
+
+    @Override
+    public void onRequestAdded(UUID owner, UUID sender, Object request) {
+        targetsBySender.computeIfAbsent(sender, k -> new ObjectOpenHashSet<>()).add(owner);
+    }
+
+    @Override
+    public void onRequestRemoved(UUID owner, UUID sender, Object request) {
+        ObjectOpenHashSet<UUID> targets = targetsBySender.get(sender);
+        if (targets == null) return;
+
+        targets.remove(owner);
+        if (targets.isEmpty()) targetsBySender.remove(sender);
+    }
+
+    public boolean hasRequest(UUID sender, UUID target) {
+        ObjectOpenHashSet<UUID> targets = targetsBySender.get(sender);
+        return targets != null && targets.contains(target);
+    }
+
+    public ObjectSet<UUID> getTargets(UUID sender) {
+        ObjectOpenHashSet<UUID> targets = targetsBySender.get(sender);
+        return targets == null ? ObjectSets.emptySet() : ObjectSets.unmodifiable(targets);
+    }
+
+    /** Forgets every outgoing request of {@code sender} and returns who they were sent to. */
+    public ObjectSet<UUID> removeSender(UUID sender) {
+        ObjectOpenHashSet<UUID> targets = targetsBySender.remove(sender);
+        return targets == null ? ObjectSets.emptySet() : targets;
+    }
+}
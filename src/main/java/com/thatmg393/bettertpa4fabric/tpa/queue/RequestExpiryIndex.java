@@ -0,0 +1,106 @@
+package com.thatmg393.bettertpa4fabric.tpa.queue;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Global min-heap of request expiry deadlines (epoch millis).
+ * Entries are never removed eagerly: whoever polls is expected to check
+ * that the request is still pending and skip it otherwise.
+ */
+public class RequestExpiryIndex<V> {
+    private long[] deadlines = new long[16];
+    private Object[] values = new Object[16];
+    private int size = 0;
+
+    public void add(long deadline, V value) {
+        if (size == deadlines.length) {
+            deadlines = Arrays.copyOf(deadlines, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (deadlines[parent] <= deadline) break;
+
+            deadlines[i] = deadlines[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+
+        deadlines[i] = deadline;
+        values[i] = value;
+    }
+
+    /** Removes and returns the earliest entry if its deadline is before {@code now}, otherwise {@code null}. */
+    public @Nullable V pollExpired(long now) {
+        if (size == 0 || deadlines[0] >= now) return null;
+
+        @SuppressWarnings("unchecked")
+        V top = (V) values[0];
+
+        int last = --size;
+        long movedDeadline = deadlines[last];
+        Object movedValue = values[last];
+        values[last] = null;
+
+        if (last > 0) siftDown(0, movedDeadline, movedValue);
+        return top;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Drops every entry {@code keep} rejects, e.g. requests that are no longer pending. O(n). */
+    public void retain(Predicate<? super V> keep) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            V value = (V) values[i];
+            if (!keep.test(value)) continue;
+
+            deadlines[kept] = deadlines[i];
+            values[kept] = value;
+            kept++;
+        }
+
+        Arrays.fill(values, kept, size, null);
+        size = kept;
+
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, deadlines[i], values[i]);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    private void siftDown(int start, long deadline, Object value) {
+        int i = start;
+        int half = size >>> 1;
+
+        while (i < half) {
+            int child = (i << 1) + 1;
+            int right = child + 1;
+            if (right < size && deadlines[right] < deadlines[child]) child = right;
+            if (deadline <= deadlines[child]) break;
+
+            deadlines[i] = deadlines[child];
+            values[i] = values[child];
+            i = child;
+        }
+
+        deadlines[i] = deadline;
+        values[i] = value;
+    }
+}
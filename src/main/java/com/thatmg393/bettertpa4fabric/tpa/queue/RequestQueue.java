@@ -1,38 +1,86 @@
 package com.thatmg393.bettertpa4fabric.tpa.queue;
 
+import org.jetbrains.annotations.Nullable;
+
 import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
 
 import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectCollection;
+import it.unimi.dsi.fastutil.objects.ObjectCollections;
 
-public class RequestQueue<K, V extends BaseRequest> extends Object2ObjectLinkedOpenHashMap<K, V> {
-    
-    public void add(K key, V value) {
-        putAndMoveToLast(key, value);
+// Wraps the map so every change goes through add/consume* and reaches the listener
+public class RequestQueue<K, V extends BaseRequest> {
+    private final K owner;
+    private final @Nullable RequestQueueListener<K, ? super V> listener;
+    private final Object2ObjectLinkedOpenHashMap<K, V> requests = new Object2ObjectLinkedOpenHashMap<>();
+    private final ObjectCollection<V> values = ObjectCollections.unmodifiable(requests.values());
+
+    public RequestQueue(K owner, @Nullable RequestQueueListener<K, ? super V> listener) {
+        this.owner = owner;
+        this.listener = listener;
     }
 
-    public void insertInFront(K key, V value) {
-        putAndMoveToFirst(key, value);
+    public K getOwner() {
+        return owner;
+    }
+
+    public void add(K key, V value) {
+        V previous = requests.putAndMoveToLast(key, value);
+        notifyReplaced(key, previous, value);
     }
 
     // Consume from front
     public V consume() {
-        if (isEmpty()) return null;
-        return removeFirst();
-    }
+        if (requests.isEmpty()) return null;
 
-    // Consume from back
-    public V popBack() {
-        if (isEmpty()) return null;
-        return removeLast();
+        K key = requests.firstKey();
+        V value = requests.removeFirst();
+        notifyRemoved(key, value);
+        return value;
     }
 
     // Find by key WITHOUT consuming
     public V findByKey(K key) {
-        return get(key);
+        return requests.get(key);
     }
 
     // Consume by key
     public V consumeByKey(K key) {
-        return remove(key);
+        V value = requests.remove(key);
+        notifyRemoved(key, value);
+        return value;
+    }
+
+    /** The sender of the oldest request. The queue must not be empty. */
+    public K firstKey() {
+        return requests.firstKey();
+    }
+
+    public boolean containsKey(K key) {
+        return requests.containsKey(key);
+    }
+
+    public int size() {
+        return requests.size();
+    }
+
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    /** Every queued request, oldest first. Read-only. */
+    public ObjectCollection<V> values() {
+        return values;
+    }
+
+    private void notifyReplaced(K key, @Nullable V previous, V value) {
+        if (listener == null) return;
+
+        if (previous != null) listener.onRequestRemoved(owner, key, previous);
+        listener.onRequestAdded(owner, key, value);
+    }
+
+    private void notifyRemoved(K key, @Nullable V value) {
+        if (listener != null && value != null) listener.onRequestRemoved(owner, key, value);
     }
 }
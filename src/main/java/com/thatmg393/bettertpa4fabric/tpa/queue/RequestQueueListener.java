@@ -0,0 +1,10 @@
+package com.thatmg393.bettertpa4fabric.tpa.queue;
+
+/**
+ * Notified by a {@link RequestQueue} whenever a request enters or leaves it
+ * through the queue's own methods.
+ */
+public interface RequestQueueListener<K, V> {
+    void onRequestAdded(K owner, K sender, V request);
+    void onRequestRemoved(K owner, K sender, V request);
+}
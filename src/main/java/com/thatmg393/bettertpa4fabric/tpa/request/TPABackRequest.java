@@ -1,37 +1,45 @@
 package com.thatmg393.bettertpa4fabric.tpa.request;
 
-import java.util.function.Consumer;
-
 import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
 import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+import com.thatmg393.bettertpa4fabric.tpa.data.PlayerData;
 import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
 import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
-import com.thatmg393.bettertpa4fabric.utils.Either;
 
-import it.unimi.dsi.fastutil.Pair;
-import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
 
-public class TPABackRequest extends BaseRequest {
-    public TPABackRequest(ServerPlayerEntity requester, Pair<RegistryKey<World>, BlockPos> target) {
-        super(requester, Either.right(target));
+public final class TPABackRequest extends BaseRequest {
+    public TPABackRequest(ServerPlayerEntity requester, TeleportTarget.PositionTarget target) {
+        super(requester, target);
+    }
+
+    @Override
+    public ServerPlayerEntity getTeleportingPlayer() {
+        return getRequester();
+    }
+
+    @Override
+    public TeleportTarget getDestination() {
+        return getTarget();
+    }
+
+    @Override
+    public void onCountdownResult(TeleportTask.Result result) {
+        super.onCountdownResult(result);
+        if (result != TeleportTask.Result.SUCCESS || !BetterTPA4Fabric.config().oneTimeTPABack()) return;
+
+        PlayerData data = TeleportManager.INSTANCE.findPlayerData(getRequester().getUuid());
+        if (data == null) return;
+
+        data.previousTeleportPosition = null;
+        TeleportManager.INSTANCE.savePlayerState(getRequester());
     }
 
     @Override
-    public TeleportTask accept() {
-        Consumer<TeleportTask.Result> callback = buildCallback(getRequester(), getTarget());
-        return new TeleportTask(
-            getRequester(), getTarget().getLeft(),
-            BetterTPA4Fabric.CONFIG.tpaTeleportTime * 20,
-            res -> {
-                callback.accept(res);
-                if (res == TeleportTask.Result.SUCCESS && BetterTPA4Fabric.CONFIG.oneTimeTPABack) {
-                    TeleportManager.INSTANCE.getPlayerData(getRequester().getUuid()).previousTeleportPosition = null;
-                }
-            }
-        );
+    protected boolean remembersBackPosition() {
+        // a one-time back point is used up, don't replace it
+        return !BetterTPA4Fabric.config().oneTimeTPABack();
     }
 
     @Override
@@ -1,51 +1,44 @@
 package com.thatmg393.bettertpa4fabric.tpa.request;
 
-import java.util.Optional;
-
-import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
 import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
-import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
-import com.thatmg393.bettertpa4fabric.utils.Either;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.RequestKeys;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+import com.thatmg393.bettertpa4fabric.utils.LangKeys;
 
-import it.unimi.dsi.fastutil.Pair;
 import net.minecraft.server.network.ServerPlayerEntity;
 
-public class TPAHereRequest extends BaseRequest {
+public final class TPAHereRequest extends BaseRequest {
+    private static final RequestKeys KEYS = new RequestKeys(
+        LangKeys.TPAHERE_ACCEPTED_SENDER, LangKeys.TPAHERE_ACCEPTED_ACCEPTER,
+        LangKeys.TPAHERE_DENIED_SENDER, LangKeys.TPAHERE_DENIED_DENIER,
+        LangKeys.TPAHERE_EXPIRED_SENDER, LangKeys.TPAHERE_EXPIRED_ACCEPTER
+    );
+
+    // the target comes to the requester, so the requester is the destination
+    private final TeleportTarget.PlayerTarget requesterTarget;
+
     public TPAHereRequest(ServerPlayerEntity requester, ServerPlayerEntity target) {
-        super(requester, Either.left(target));
+        super(requester, new TeleportTarget.PlayerTarget(target));
+        this.requesterTarget = new TeleportTarget.PlayerTarget(requester);
     }
 
-    @Override
-    public TeleportTask accept() {
-        ServerPlayerEntity teleportingPlayer = getTarget().getLeft().get();
-        return new TeleportTask(
-            teleportingPlayer, Optional.of(getRequester()),
-            BetterTPA4Fabric.CONFIG.tpaTeleportTime * 20,
-            buildCallback(teleportingPlayer, Either.left(getRequester()))
-        );
+    public TPAHereRequest(ServerPlayerEntity requester, ServerPlayerEntity target, long createdAt) {
+        super(requester, new TeleportTarget.PlayerTarget(target), createdAt);
+        this.requesterTarget = new TeleportTarget.PlayerTarget(requester);
     }
 
     @Override
-    public Pair<String, String> getExpiredKeys() {
-        return Pair.of(
-            "bettertpa4fabric.message.tpahere.expired.sender",
-            "bettertpa4fabric.message.tpahere.expired.accepter"
-        );
+    public ServerPlayerEntity getTeleportingPlayer() {
+        return getTargetPlayer();
     }
 
     @Override
-    public Pair<String, String> getAcceptedKeys() {
-        return Pair.of(
-            "bettertpa4fabric.message.tpahere.accepted.sender",
-            "bettertpa4fabric.message.tpahere.accepted.accepter"
-        );
+    public TeleportTarget getDestination() {
+        return requesterTarget;
     }
 
     @Override
-    public Pair<String, String> getDeniedKeys() {
-        return Pair.of(
-            "bettertpa4fabric.message.tpahere.denied.sender",
-            "bettertpa4fabric.message.tpahere.denied.denier"
-        );
+    public RequestKeys getKeys() {
+        return KEYS;
     }
 }
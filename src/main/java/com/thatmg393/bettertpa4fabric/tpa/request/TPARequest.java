@@ -1,48 +1,39 @@
 package com.thatmg393.bettertpa4fabric.tpa.request;
 
-import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
 import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
-import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
-import com.thatmg393.bettertpa4fabric.utils.Either;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.RequestKeys;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+import com.thatmg393.bettertpa4fabric.utils.LangKeys;
 
-import it.unimi.dsi.fastutil.Pair;
 import net.minecraft.server.network.ServerPlayerEntity;
 
-public class TPARequest extends BaseRequest {
+public final class TPARequest extends BaseRequest {
+    private static final RequestKeys KEYS = new RequestKeys(
+        LangKeys.TPA_ACCEPTED_SENDER, LangKeys.TPA_ACCEPTED_ACCEPTER,
+        LangKeys.TPA_DENIED_SENDER, LangKeys.TPA_DENIED_DENIER,
+        LangKeys.TPA_EXPIRED_SENDER, LangKeys.TPA_EXPIRED_ACCEPTER
+    );
+
     public TPARequest(ServerPlayerEntity requester, ServerPlayerEntity target) {
-        super(requester, Either.left(target));
+        super(requester, new TeleportTarget.PlayerTarget(target));
     }
 
-    @Override
-    public TeleportTask accept() {
-        return new TeleportTask(
-            getRequester(), getTarget().getLeft(),
-            BetterTPA4Fabric.CONFIG.tpaTeleportTime * 20,
-            buildCallback(getRequester(), getTarget())
-        );
+    public TPARequest(ServerPlayerEntity requester, ServerPlayerEntity target, long createdAt) {
+        super(requester, new TeleportTarget.PlayerTarget(target), createdAt);
     }
 
     @Override
-    public Pair<String, String> getExpiredKeys() {
-        return Pair.of(
-            "bettertpa4fabric.message.tpa.expired.sender",
-            "bettertpa4fabric.message.tpa.expired.accepter"
-        );
+    public ServerPlayerEntity getTeleportingPlayer() {
+        return getRequester();
     }
 
     @Override
-    public Pair<String, String> getAcceptedKeys() {
-        return Pair.of(
-            "bettertpa4fabric.message.tpa.accepted.sender",
-            "bettertpa4fabric.message.tpa.accepted.accepter"
-        );
+    public TeleportTarget getDestination() {
+        return getTarget();
     }
 
     @Override
-    public Pair<String, String> getDeniedKeys() {
-        return Pair.of(
-            "bettertpa4fabric.message.tpa.denied.sender",
-            "bettertpa4fabric.message.tpa.denied.denier"
-        );
+    public RequestKeys getKeys() {
+        return KEYS;
     }
 }
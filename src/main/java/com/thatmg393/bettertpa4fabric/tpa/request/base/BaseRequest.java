@@ -1,98 +1,164 @@
 package com.thatmg393.bettertpa4fabric.tpa.request.base;
 
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jetbrains.annotations.Nullable;
 
 import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+import com.thatmg393.bettertpa4fabric.api.TPAEvents;
+import com.thatmg393.bettertpa4fabric.api.TeleportRequest;
+import com.thatmg393.bettertpa4fabric.metrics.TPAMetrics;
 import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget.PlayerTarget;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget.PositionTarget;
 import com.thatmg393.bettertpa4fabric.tpa.tickable.task.TeleportTask;
-import com.thatmg393.bettertpa4fabric.utils.Either;
+import com.thatmg393.bettertpa4fabric.utils.LangKey;
+import com.thatmg393.bettertpa4fabric.utils.LangKeys;
 import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
 
-import it.unimi.dsi.fastutil.Pair;
-import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
-
-public abstract class BaseRequest {
-    public static Consumer<TeleportTask.Result> buildCallback(
-        ServerPlayerEntity teleportingPlayer,
-        Either<ServerPlayerEntity, Pair<RegistryKey<World>, BlockPos>> target
-    ) {
-        TeleportManager.INSTANCE.getPlayerData(teleportingPlayer.getUuid()).isTeleportingLocked = true;
-        target.ifLeft(t -> TeleportManager.INSTANCE.getPlayerData(t.getUuid()).isTeleportingLocked = true);
-
-        return res -> {
-            TeleportManager.INSTANCE.getPlayerData(teleportingPlayer.getUuid()).isTeleportingLocked = false;
-            target.ifLeft(t -> TeleportManager.INSTANCE.getPlayerData(t.getUuid()).isTeleportingLocked = false);
-
-            switch (res) {
-                case REQUESTER_MOVED -> {
-                    String key1 = "bettertpa4fabric.message.error.cancelled.you_moved";
-                    String key2 = "bettertpa4fabric.message.error.cancelled.they_moved";
-
-                    if (BetterTPA4Fabric.CONFIG.resetTimerOnMove) {
-                        TeleportManager.INSTANCE.getPlayerData(teleportingPlayer.getUuid()).isTeleportingLocked = true;
-                        target.ifLeft(t -> TeleportManager.INSTANCE.getPlayerData(t.getUuid()).isTeleportingLocked = true);
-
-                        key1 = "bettertpa4fabric.message.error.reset.you_moved";
-                        key2 = "bettertpa4fabric.message.error.reset.they_moved";
-                    }
-
-                    teleportingPlayer.sendMessage(MCTextUtils.fromLang(key1));
-
-                    final String realKey2 = key2;
-                    target.ifLeft(t -> t.sendMessage(MCTextUtils.fromLang(realKey2)));
-                }
-                case REQUESTER_DIED -> {
-                    teleportingPlayer.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.cancelled.you_died"));
-                    target.ifLeft(t -> t.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.cancelled.they_died")));
-                }
-                case TARGET_DIED -> {
-                    teleportingPlayer.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.cancelled.target_died"));
-                    target.ifLeft(t -> t.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.error.cancelled.target_died.notify")));
-                }
-                case SUCCESS -> {
-                    target.ifLeft(t -> TeleportManager.INSTANCE.doTeleport(teleportingPlayer, t.getEntityWorld(), t.getBlockPos()))
-                        .ifRight(pos -> TeleportManager.INSTANCE.doTeleport(teleportingPlayer, teleportingPlayer.getEntityWorld().getServer().getWorld(pos.first()), pos.second()));
-                }
-            }
-        };
-    }
 
+public abstract class BaseRequest implements TeleportRequest {
     private final ServerPlayerEntity requester;
-    private final Either<ServerPlayerEntity, Pair<RegistryKey<World>, BlockPos>> target;
+    private final TeleportTarget target;
+
+    private final long createdAt;
+    private long acceptedAtNanos;
+    // only created for requests someone asked about, the command path never allocates it
+    private @Nullable CompletableFuture<TeleportTask.Result> outcome;
+    // kept so a request that ended before anyone asked still reports how
+    private @Nullable TeleportTask.Result result;
 
-    private final long createdAt = System.currentTimeMillis();
+    public BaseRequest(ServerPlayerEntity requester, TeleportTarget target) {
+        this(requester, target, System.currentTimeMillis());
+    }
 
-    public BaseRequest(ServerPlayerEntity requester, Either<ServerPlayerEntity, Pair<RegistryKey<World>, BlockPos>> target) {
+    /** {@code createdAt} is kept as-is, so a request restored from the journal expires when the original would have. */
+    public BaseRequest(ServerPlayerEntity requester, TeleportTarget target, long createdAt) {
         this.requester = requester;
         this.target = target;
+        this.createdAt = createdAt;
     }
 
+    @Override
     public ServerPlayerEntity getRequester() {
         return requester;
     }
 
-    public Either<ServerPlayerEntity, Pair<RegistryKey<World>, BlockPos>> getTarget() {
+    public TeleportTarget getTarget() {
         return target;
     }
 
+    @Override
+    public @Nullable ServerPlayerEntity getTargetPlayer() {
+        return target instanceof PlayerTarget player ? player.player() : null;
+    }
+
+    @Override
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public long getExpiresAt() {
+        return createdAt + BetterTPA4Fabric.config().expireMillis();
+    }
+
+    @Override
     public boolean isExpired() {
-        return System.currentTimeMillis() > createdAt + (BetterTPA4Fabric.CONFIG.tpaExpireTime * 1000);
+        return System.currentTimeMillis() > getExpiresAt();
+    }
+
+    public RequestKeys getKeys() {
+        return RequestKeys.NONE;
+    }
+
+    /** Completes with how this request ended for good: a countdown result, or how it ended before being accepted. */
+    public CompletionStage<TeleportTask.Result> getOutcome() {
+        if (result != null) return CompletableFuture.completedStage(result);
+        if (outcome == null) outcome = new CompletableFuture<>();
+        return outcome.minimalCompletionStage();
+    }
+
+    /** Ends this request as far as {@link #getOutcome()} is concerned. Only the first call counts. */
+    public void complete(TeleportTask.Result result) {
+        if (this.result != null) return;
+
+        this.result = result;
+        if (outcome != null) outcome.complete(result);
+    }
+
+    /** Locks everyone involved and starts the countdown. */
+    public TeleportTask accept() {
+        setLocked(true);
+        acceptedAtNanos = System.nanoTime();
+        return new TeleportTask(this, getTeleportingPlayer(), getDestination(), BetterTPA4Fabric.config().teleportTicks());
     }
 
-    public Pair<String, String> getExpiredKeys() {
-        return Pair.of(null, null);
+    /** Called by this request's countdown with how it ended (or, with {@code resetTimerOnMove}, restarted). */
+    public void onCountdownResult(TeleportTask.Result result) {
+        ServerPlayerEntity teleporting = getTeleportingPlayer();
+        ServerPlayerEntity other = getDestination() instanceof PlayerTarget player ? player.player() : null;
+        boolean restarting = result == TeleportTask.Result.REQUESTER_MOVED && BetterTPA4Fabric.config().resetTimerOnMove();
+
+        if (!restarting) setLocked(false);
+        TPAMetrics.INSTANCE.countdownResult(result);
+        if (!restarting && result != TeleportTask.Result.SUCCESS) {
+            TPAEvents.COUNTDOWN_CANCELLED.invoker().onCountdownCancelled(this, result);
+            complete(result);
+        }
+
+        switch (result) {
+            case REQUESTER_MOVED -> {
+                send(teleporting, restarting ? LangKeys.ERROR_RESET_YOU_MOVED : LangKeys.ERROR_CANCELLED_YOU_MOVED);
+                send(other, restarting ? LangKeys.ERROR_RESET_THEY_MOVED : LangKeys.ERROR_CANCELLED_THEY_MOVED);
+            }
+            case REQUESTER_DIED -> {
+                send(teleporting, LangKeys.ERROR_CANCELLED_YOU_DIED);
+                send(other, LangKeys.ERROR_CANCELLED_THEY_DIED);
+            }
+            case TARGET_DIED -> {
+                send(teleporting, LangKeys.ERROR_CANCELLED_TARGET_DIED);
+                send(other, LangKeys.ERROR_CANCELLED_TARGET_DIED_NOTIFY);
+            }
+            // nothing is sent to whoever is leaving
+            case REQUESTER_LEFT -> send(other, LangKeys.ERROR_CANCELLED_THEY_LEFT);
+            case TARGET_LEFT -> send(teleporting, LangKeys.ERROR_CANCELLED_TARGET_LEFT);
+            case BLOCKED -> {
+                send(teleporting, LangKeys.ERROR_TELEPORT_BLOCKED);
+                send(other, LangKeys.ERROR_TELEPORT_BLOCKED);
+            }
+            case SUCCESS -> {
+                TPAMetrics.INSTANCE.teleportLatency.recordSince(acceptedAtNanos);
+                switch (getDestination()) {
+                    case PlayerTarget player -> TeleportManager.INSTANCE.doTeleport(
+                        this, teleporting, player.player().getEntityWorld(), player.player().getBlockPos(), true
+                    );
+                    case PositionTarget position -> TeleportManager.INSTANCE.doTeleport(
+                        this, teleporting, teleporting.getEntityWorld().getServer().getWorld(position.world()), position.pos(),
+                        remembersBackPosition()
+                    );
+                }
+            }
+        }
+
+        if (!restarting) TeleportManager.INSTANCE.onCountdownFinished(this);
     }
 
-    public Pair<String, String> getAcceptedKeys() {
-        return Pair.of(null, null);
+    /** Whether the position the teleporting player leaves from becomes their new /tpaback point. */
+    protected boolean remembersBackPosition() {
+        return true;
     }
 
-    public Pair<String, String> getDeniedKeys() {
-        return Pair.of(null, null);
+    private void setLocked(boolean locked) {
+        TeleportManager.INSTANCE.setTeleportingLocked(getTeleportingPlayer().getUuid(), locked);
+        if (getDestination() instanceof PlayerTarget player) {
+            TeleportManager.INSTANCE.setTeleportingLocked(player.player().getUuid(), locked);
+        }
     }
 
-    public abstract TeleportTask accept();
+    private static void send(@Nullable ServerPlayerEntity player, LangKey key) {
+        if (player != null) player.sendMessage(MCTextUtils.fromLang(player, key));
+    }
 }
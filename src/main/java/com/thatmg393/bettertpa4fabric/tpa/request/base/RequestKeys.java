@@ -0,0 +1,18 @@
+package com.thatmg393.bettertpa4fabric.tpa.request.base;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.utils.LangKey;
+
+/**
+ * The messages a request type sends to its sender and receiver when it is
+ * accepted, denied or expires. Each request type shares one constant table;
+ * a {@code null} key means that side isn't told.
+ */
+public record RequestKeys(
+    @Nullable LangKey acceptedSender, @Nullable LangKey acceptedReceiver,
+    @Nullable LangKey deniedSender, @Nullable LangKey deniedReceiver,
+    @Nullable LangKey expiredSender, @Nullable LangKey expiredReceiver
+) {
+    public static final RequestKeys NONE = new RequestKeys(null, null, null, null, null, null);
+}
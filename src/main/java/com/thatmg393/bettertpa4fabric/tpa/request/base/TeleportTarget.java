@@ -0,0 +1,13 @@
+package com.thatmg393.bettertpa4fabric.tpa.request.base;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/** Where a teleport goes: to wherever a player is when it happens, or to a fixed position. */
+public sealed interface TeleportTarget permits TeleportTarget.PlayerTarget, TeleportTarget.PositionTarget {
+    record PlayerTarget(ServerPlayerEntity player) implements TeleportTarget { }
+
+    record PositionTarget(RegistryKey<World> world, BlockPos pos) implements TeleportTarget { }
+}
@@ -0,0 +1,78 @@
+package com.thatmg393.bettertpa4fabric.tpa.tickable;
+
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
+
+/**
+ * Cancellation handle for a task scheduled on a {@link TickableTaskProcessor}.
+ * Doubles as the intrusive timing wheel node, so cancelling is O(1).
+ */
+public final class TaskHandle {
+    private final TickableTaskProcessor<?> processor;
+    private final TickableTask task;
+
+    long deadline;
+    long lastRunTick;
+    boolean active = true;
+
+    TaskHandle prev = this;
+    TaskHandle next = this;
+
+    TaskHandle(TickableTaskProcessor<?> processor, TickableTask task, long lastRunTick) {
+        this.processor = processor;
+        this.task = task;
+        this.lastRunTick = lastRunTick;
+    }
+
+    public TickableTask getTask() {
+        return task;
+    }
+
+    /** The processor tick this task will be woken up on next. */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /** Removes the task without running it again. Does nothing if it already finished. */
+    public void cancel() {
+        if (!active) return;
+        processor.cancel(this);
+    }
+
+    void unlink() {
+        prev.next = next;
+        next.prev = prev;
+        prev = this;
+        next = this;
+    }
+
+    void linkBefore(TaskHandle sentinel) {
+        prev = sentinel.prev;
+        next = sentinel;
+        sentinel.prev.next = this;
+        sentinel.prev = this;
+    }
+
+    boolean isEmptyList() {
+        return next == this;
+    }
+
+    /** Moves every node after this sentinel onto {@code to}, leaving this list empty. */
+    void spliceInto(TaskHandle to) {
+        if (isEmptyList()) return;
+
+        TaskHandle first = next;
+        TaskHandle last = prev;
+
+        first.prev = to.prev;
+        to.prev.next = first;
+        last.next = to;
+        to.prev = last;
+
+        prev = this;
+        next = this;
+    }
+}
@@ -0,0 +1,16 @@
+package com.thatmg393.bettertpa4fabric.tpa.tickable;
+
+/** How much time deferrable work has left this tick, see {@link TickableTaskProcessor#doTick(long)}. */
+public final class TickBudget {
+    private long deadline;
+    private boolean unlimited = true;
+
+    void start(long budgetNanos) {
+        unlimited = budgetNanos == Long.MAX_VALUE;
+        deadline = System.nanoTime() + budgetNanos;
+    }
+
+    public boolean isExhausted() {
+        return !unlimited && System.nanoTime() - deadline >= 0;
+    }
+}
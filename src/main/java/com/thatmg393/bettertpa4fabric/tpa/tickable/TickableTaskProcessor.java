@@ -2,27 +2,161 @@ package com.thatmg393.bettertpa4fabric.tpa.tickable;
 
 import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
 
-import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 
+/**
+ * Hierarchical timing wheel. Every task is parked in the slot of the tick it
+ * next needs to run on (see {@link TickableTask#getWakeInterval()}), so a tick
+ * only touches the tasks that are actually due instead of every live task.
+ * Due {@link TickableTask#isDeferrable() deferrable} tasks can be pushed to
+ * the next tick when the tick's {@link TickBudget} runs out.
+ */
 public class TickableTaskProcessor<T extends TickableTask> {
-    private final ObjectArrayList<T> tasks = new ObjectArrayList<>();
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int WHEEL_LEVELS = 4;
 
-    public void putTask(T task) {
-        tasks.add(task);
+    // anything further away than this parks in the top level and gets re-cascaded
+    private static final long MAX_DELAY = (1L << (WHEEL_BITS * WHEEL_LEVELS)) - 1;
+
+    private final TaskHandle[][] wheels = new TaskHandle[WHEEL_LEVELS][WHEEL_SIZE];
+    private final TaskHandle due = new TaskHandle(this, null, 0);
+    private final TaskHandle cascading = new TaskHandle(this, null, 0);
+    private final TaskHandle deferred = new TaskHandle(this, null, 0);
+    private final TickBudget budget = new TickBudget();
+    private int deferredCount;
+
+    private final Reference2ObjectOpenHashMap<T, TaskHandle> handles = new Reference2ObjectOpenHashMap<>();
+
+    private long currentTick = 0;
+
+    public TickableTaskProcessor() {
+        for (TaskHandle[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                wheel[i] = new TaskHandle(this, null, 0);
+            }
+        }
     }
 
-    public void removeTask(int index) {
-        tasks.remove(index);
+    /** Schedules the task to run starting from the next tick. Adding the same task twice returns its existing handle. */
+    public TaskHandle putTask(T task) {
+        TaskHandle handle = handles.get(task);
+        if (handle != null) return handle;
+
+        handle = new TaskHandle(this, task, currentTick);
+        handles.put(task, handle);
+        schedule(handle, currentTick + 1);
+        return handle;
     }
 
     public void removeTask(T task) {
-        tasks.remove(task);
+        TaskHandle handle = handles.get(task);
+        if (handle != null) handle.cancel();
+    }
+
+    public int getTaskCount() {
+        return handles.size();
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /** The budget of the tick being run, for deferrable tasks that can stop part way and resume next tick. */
+    public TickBudget getBudget() {
+        return budget;
+    }
+
+    /** Deferrable tasks that ran out of budget last tick and go first next tick. */
+    public int getDeferredTaskCount() {
+        return deferredCount;
     }
 
     public void doTick() {
-        for (int i = tasks.size() - 1; i >= 0; i--) {
-            if (!tasks.get(i).tick())
-                tasks.remove(i);
+        doTick(Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs every due task. Once {@code budgetNanos} is used up, due deferrable tasks
+     * are held back and run first thing next tick instead; at least one of them still
+     * runs every tick so they can't starve. Must-run tasks always run.
+     */
+    public void doTick(long budgetNanos) {
+        budget.start(budgetNanos);
+        currentTick++;
+
+        // cascade from the top so nodes falling out of a higher level can keep falling this tick
+        for (int level = WHEEL_LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) continue;
+
+            wheels[level][slotOf(currentTick, level)].spliceInto(cascading);
+            while (!cascading.isEmptyList()) {
+                TaskHandle handle = cascading.next;
+                handle.unlink();
+                schedule(handle, handle.deadline);
+            }
+        }
+
+        // last tick's leftovers first, they're already late
+        deferred.spliceInto(due);
+        deferredCount = 0;
+        wheels[0][slotOf(currentTick, 0)].spliceInto(due);
+
+        boolean ranDeferrable = false;
+        while (!due.isEmptyList()) {
+            TaskHandle handle = due.next;
+            handle.unlink();
+
+            if (handle.getTask().isDeferrable()) {
+                if (ranDeferrable && budget.isExhausted()) {
+                    handle.linkBefore(deferred);
+                    deferredCount++;
+                    continue;
+                }
+                ranDeferrable = true;
+            }
+
+            run(handle);
         }
     }
-}
\ No newline at end of file
+
+    void cancel(TaskHandle handle) {
+        handle.active = false;
+        handle.unlink();
+        handles.remove(handle.getTask());
+    }
+
+    private void run(TaskHandle handle) {
+        TickableTask task = handle.getTask();
+        task.skipTicks(currentTick - handle.lastRunTick - 1);
+        handle.lastRunTick = currentTick;
+
+        boolean keep = task.tick();
+        if (!handle.active) return; // cancelled from inside its own tick
+
+        if (keep) {
+            schedule(handle, currentTick + Math.max(1, task.getWakeInterval()));
+        } else {
+            cancel(handle);
+        }
+    }
+
+    private void schedule(TaskHandle handle, long deadline) {
+        handle.deadline = deadline;
+
+        long delay = Math.min(Math.max(deadline - currentTick, 0), MAX_DELAY);
+        long placeAt = currentTick + delay;
+
+        int level = 0;
+        while (level < WHEEL_LEVELS - 1 && delay >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+
+        handle.linkBefore(wheels[level][slotOf(placeAt, level)]);
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    }
+}
@@ -0,0 +1,47 @@
+package com.thatmg393.bettertpa4fabric.tpa.tickable.task;
+
+import java.nio.file.Path;
+
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+import com.thatmg393.bettertpa4fabric.config.ConfigSnapshot;
+import com.thatmg393.bettertpa4fabric.metrics.MetricsExporter;
+import com.thatmg393.bettertpa4fabric.metrics.TPAMetrics;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
+
+/** Snapshots the metrics on the server thread every few seconds and hands them to the exporter. */
+public class MetricsExportTask extends TickableTask {
+    private final MetricsExporter exporter;
+    // counted here rather than in the task's duration so a reloaded interval takes effect right away
+    private int secondsSinceExport;
+
+    public MetricsExportTask(MetricsExporter exporter) {
+        super(20);
+        this.exporter = exporter;
+    }
+
+    @Override
+    protected TickResult onTick() {
+        return TickResult.REPEAT;
+    }
+
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    @Override
+    public long getWakeInterval() {
+        return getTickDuration();
+    }
+
+    @Override
+    protected void onFinish() {
+        ConfigSnapshot config = BetterTPA4Fabric.config();
+        if (++secondsSinceExport < config.metricsExportInterval()) return;
+        secondsSinceExport = 0;
+
+        if (config.metricsExportFile().isEmpty()) return;
+
+        exporter.export(Path.of(config.metricsExportFile()), TPAMetrics.INSTANCE.getRegistry().snapshot());
+    }
+}
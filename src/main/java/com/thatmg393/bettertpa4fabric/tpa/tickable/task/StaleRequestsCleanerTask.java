@@ -1,13 +1,18 @@
 package com.thatmg393.bettertpa4fabric.tpa.tickable.task;
 
+import com.thatmg393.bettertpa4fabric.metrics.TPAMetrics;
 import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
-import com.thatmg393.bettertpa4fabric.tpa.data.PlayerData;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.TickBudget;
 import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
-import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
-
-import it.unimi.dsi.fastutil.Pair;
 
+/**
+ * Sweeps expired requests once a second. The sweep (and the messages it
+ * sends) is deferrable: when the tick budget runs out part way it stops and
+ * picks up where it left off on the next tick.
+ */
 public class StaleRequestsCleanerTask extends TickableTask {
+    private boolean sweepUnfinished;
 
     public StaleRequestsCleanerTask() {
         super(20);
@@ -15,35 +20,48 @@ public class StaleRequestsCleanerTask extends TickableTask {
 
     @Override
     protected TickResult onTick() {
+        if (sweepUnfinished) {
+            sweep();
+            // the countdown to the next sweep starts once this one is done
+            return TickResult.PAUSE;
+        }
+
         return TickResult.REPEAT;
     }
 
+    @Override
+    public boolean isDeferrable() {
+        return true;
+    }
+
+    @Override
+    public long getWakeInterval() {
+        // nothing happens between sweeps, sleep until the next one is due
+        return sweepUnfinished ? 1 : getTickDuration();
+    }
+
     @Override
     protected void onFinish() {
-        for (PlayerData data : TeleportManager.INSTANCE.getPlayerDatas()) {
-            if (data.teleportRequests.isEmpty()) continue;
-            data.teleportRequests.values().removeIf(request -> {
-                if (!request.isExpired()) return false;
-
-                Pair<String, String> expiredMessages = request.getExpiredKeys();
-                if (expiredMessages.first() != null && request.getRequester().networkHandler.isConnectionOpen()) {
-                    request.getRequester().sendMessage(MCTextUtils.fromLang(
-                        expiredMessages.first(),
-                        request.getTarget().getLeft().map(p -> p.getName().getString()).orElse("?")
-                    ));
-                }
-
-                request.getTarget().ifLeft(t -> {
-                    if (expiredMessages.second() != null && t.networkHandler.isConnectionOpen()) {
-                        t.sendMessage(MCTextUtils.fromLang(
-                            expiredMessages.second(),
-                            request.getRequester().getName().getString()
-                        ));
-                    }
-                });
-
-                return true;
-            });
+        TeleportManager.INSTANCE.evictRetainedPlayerData();
+        sweep();
+    }
+
+    private void sweep() {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        TickBudget budget = TeleportManager.INSTANCE.getTickBudget();
+
+        sweepUnfinished = false;
+        BaseRequest request;
+        while ((request = TeleportManager.INSTANCE.pollExpiredRequest(now)) != null) {
+            TeleportManager.INSTANCE.notifyExpired(request);
+
+            if (budget.isExhausted()) {
+                sweepUnfinished = true;
+                break;
+            }
         }
+
+        TPAMetrics.INSTANCE.expirySweepDuration.recordSince(start);
     }
 }
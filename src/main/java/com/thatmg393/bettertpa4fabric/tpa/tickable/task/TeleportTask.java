@@ -1,77 +1,172 @@
 package com.thatmg393.bettertpa4fabric.tpa.tickable.task;
 
-import java.util.Optional;
-import java.util.function.Consumer;
+import org.jetbrains.annotations.Nullable;
 
 import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+import com.thatmg393.bettertpa4fabric.api.TPAEvents;
+import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+import com.thatmg393.bettertpa4fabric.tpa.display.CountdownDisplays;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.TeleportTarget;
+import com.thatmg393.bettertpa4fabric.tpa.tickable.TaskHandle;
 import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
-import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
+import com.thatmg393.bettertpa4fabric.tpa.world.DestinationChunkTicket;
 
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 
 public class TeleportTask extends TickableTask {
+    // how long a finished countdown may wait on its destination chunk before teleporting anyway
+    private static final int MAX_CHUNK_WAIT_TICKS = 100;
 
     public enum Result {
         REQUESTER_DIED,
         TARGET_DIED,
+        REQUESTER_LEFT,
+        TARGET_LEFT,
         REQUESTER_MOVED,
-        SUCCESS
+        /** The countdown ran out but a {@link TPAEvents#ALLOW_TELEPORT} listener stopped the teleport. */
+        BLOCKED,
+        SUCCESS,
+
+        // these end a request before it was ever accepted, they're only seen through BaseRequest#getOutcome
+
+        DENIED,
+        EXPIRED,
+        /** Cancelled by its sender, dropped to make room for newer requests, or a player left. */
+        WITHDRAWN
     }
 
+    private final BaseRequest request;
     private final ServerPlayerEntity requester;
-    private final Optional<ServerPlayerEntity> target;
-    private final Consumer<Result> callback;
+    private final @Nullable ServerPlayerEntity target;
+    private final @Nullable TeleportTarget.PositionTarget fixedDestination;
+
+    private final DestinationChunkTicket destinationTicket = new DestinationChunkTicket();
+    private @Nullable ChunkPos fixedDestinationChunk;
+    private int chunkWaitTicks;
 
     private BlockPos startPos;
+    private long displayWakeInterval = 1;
 
-    public TeleportTask(
-        ServerPlayerEntity requester,
-        Optional<ServerPlayerEntity> target,
-        long tickDuration,
-        Consumer<Result> callback
-    ) {
+    /**
+     * Counts down for {@code requester} and reports how it went to {@link BaseRequest#onCountdownResult}.
+     * A player destination is followed (and checked for death) every tick, a position one is only pre-loaded.
+     */
+    public TeleportTask(BaseRequest request, ServerPlayerEntity requester, TeleportTarget destination, long tickDuration) {
         super(tickDuration);
 
+        this.request = request;
         this.requester = requester;
-        this.target = target;
-        this.callback = callback;
+        switch (destination) {
+            case TeleportTarget.PlayerTarget player -> {
+                this.target = player.player();
+                this.fixedDestination = null;
+            }
+            case TeleportTarget.PositionTarget position -> {
+                this.target = null;
+                this.fixedDestination = position;
+            }
+        }
+    }
+
+    public BaseRequest getRequest() {
+        return request;
+    }
+
+    /** The player being teleported. */
+    public ServerPlayerEntity getRequester() {
+        return requester;
+    }
+
+    /**
+     * Ends the countdown from outside its own tick, e.g. from a death or leave event.
+     * The caller is expected to have cancelled this task's {@link TaskHandle}.
+     */
+    public void interrupt(Result result) {
+        cancel(result);
+    }
+
+    @Override
+    public long getWakeInterval() {
+        long ticksLeft = getTickDuration();
+        // just (re)started or holding the last tick for the destination chunk
+        if (ticksLeft <= 1 || ticksLeft == getInitialTickDuration()) return 1;
+
+        // deaths and disconnects arrive as events, only movement and the display need waking up for
+        long interval = Math.min(BetterTPA4Fabric.config().countdownMoveCheckInterval(), displayWakeInterval);
+        return Math.min(interval, ticksLeft);
     }
 
     @Override
     protected void onFirstTick() {
         startPos = requester.getBlockPos();
+        chunkWaitTicks = 0;
     }
 
     @Override
     protected TickResult onTick() {
+        // deaths normally arrive through TeleportManager's death event, this only catches what slips past it
         if (!requester.isAlive()) {
-            callback.accept(Result.REQUESTER_DIED);
-            return TickResult.CANCEL;
+            return cancel(Result.REQUESTER_DIED);
         }
 
-        if (target.isPresent() && !target.get().isAlive()) {
-            callback.accept(Result.TARGET_DIED);
-            return TickResult.CANCEL;
+        if (target != null && !target.isAlive()) {
+            return cancel(Result.TARGET_DIED);
         }
 
         if (!(
             requester.getBlockX() == startPos.getX() &&
             requester.getBlockZ() == startPos.getZ()
         )) {
-            callback.accept(Result.REQUESTER_MOVED);
-            return BetterTPA4Fabric.CONFIG.resetTimerOnMove ? TickResult.RESET : TickResult.CANCEL;
+            if (BetterTPA4Fabric.config().resetTimerOnMove()) {
+                request.onCountdownResult(Result.REQUESTER_MOVED);
+                return TickResult.RESET;
+            }
+            return cancel(Result.REQUESTER_MOVED);
         }
 
-        if (getTickDuration() % 20 == 0) {
-            requester.sendMessage(MCTextUtils.fromLang("bettertpa4fabric.message.teleport.countdown", getTickDuration() / 20));
+        trackDestination();
+
+        // hold the last tick until the destination is loaded, so teleporting never waits on a sync chunk load
+        if (getTickDuration() == 1 && !destinationTicket.isReady() && chunkWaitTicks < MAX_CHUNK_WAIT_TICKS) {
+            chunkWaitTicks++;
+            return TickResult.PAUSE;
         }
 
+        TeleportManager.INSTANCE.getCountdownDisplays().update(requester, getTickDuration(), getInitialTickDuration());
+        displayWakeInterval = CountdownDisplays.ticksUntilChange(getTickDuration(), getInitialTickDuration());
         return TickResult.CONTINUE;
     }
 
     @Override
     protected void onFinish() {
-        callback.accept(Result.SUCCESS);
+        // the ticket is left to time out on its own so the chunk stays loaded through the teleport
+        TeleportManager.INSTANCE.getCountdownDisplays().clear(requester);
+        request.onCountdownResult(TPAEvents.ALLOW_TELEPORT.invoker().allowTeleport(request) ? Result.SUCCESS : Result.BLOCKED);
+    }
+
+    private TickResult cancel(Result result) {
+        destinationTicket.release();
+        TeleportManager.INSTANCE.getCountdownDisplays().clear(requester);
+        request.onCountdownResult(result);
+        return TickResult.CANCEL;
+    }
+
+    private void trackDestination() {
+        if (target != null) {
+            destinationTicket.track(target.getEntityWorld(), target.getChunkPos());
+            return;
+        }
+
+        if (fixedDestination == null) return;
+
+        ServerWorld world = requester.getEntityWorld().getServer().getWorld(fixedDestination.world());
+        if (world == null) return;
+
+        if (fixedDestinationChunk == null) fixedDestinationChunk = new ChunkPos(fixedDestination.pos());
+        destinationTicket.track(world, fixedDestinationChunk);
     }
 }
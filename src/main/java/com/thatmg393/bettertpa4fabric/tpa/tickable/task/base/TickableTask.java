@@ -9,6 +9,7 @@ public abstract class TickableTask {
 
     private long tickDuration;
     private boolean firstTick = true;
+    private boolean paused;
 
     public TickableTask(long tickDuration) {
         this.tickDuration = tickDuration;
@@ -21,7 +22,10 @@ public abstract class TickableTask {
             onFirstTick();
         }
 
-        return switch (onTick()) {
+        TickResult result = onTick();
+        paused = result == TickResult.PAUSE;
+
+        return switch (result) {
             case CANCEL -> false;
             case PAUSE -> true;
 
@@ -53,6 +57,33 @@ public abstract class TickableTask {
         };
     }
 
+    /**
+     * Fast-forwards the countdown over ticks the processor let this task sleep
+     * through (see {@link #getWakeInterval()}). Never finishes the task by itself,
+     * and a task that paused on its last tick stays paused while it sleeps.
+     */
+    public final void skipTicks(long ticks) {
+        if (ticks <= 0 || firstTick || paused || tickDuration <= 1) return;
+        tickDuration -= Math.min(ticks, tickDuration - 1);
+    }
+
+    /**
+     * How many ticks may pass before {@link #onTick()} needs to run again.
+     * Tasks whose {@code onTick()} does nothing until the countdown runs out
+     * can return {@link #getTickDuration()} to sleep until they finish.
+     */
+    public long getWakeInterval() {
+        return 1;
+    }
+
+    /**
+     * Whether the processor may push this task to a later tick when the tick's
+     * budget is used up. Anything a player is waiting on to the tick should not be.
+     */
+    public boolean isDeferrable() {
+        return false;
+    }
+
     public long getInitialTickDuration() {
         return initialTickDuration;
     }
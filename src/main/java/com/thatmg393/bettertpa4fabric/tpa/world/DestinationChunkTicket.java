@@ -0,0 +1,57 @@
+package com.thatmg393.bettertpa4fabric.tpa.world;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.tpa.TeleportManager;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * Keeps the chunk a countdown will end up in loading in the background, so
+ * the teleport itself doesn't have to block on a synchronous chunk load.
+ * Follows the destination around when it moves.
+ */
+public class DestinationChunkTicket {
+    private static final int RADIUS = 1;
+    // the ticket type times out after 40 ticks, so top it up well before that
+    private static final int REFRESH_INTERVAL = 20;
+
+    private @Nullable ServerWorld world;
+    private @Nullable ChunkPos chunkPos;
+    private long lastRefreshTime;
+
+    /**
+     * Points the ticket at the given chunk, moving it if the destination changed.
+     * Call at least every {@value #REFRESH_INTERVAL} ticks.
+     */
+    public void track(ServerWorld world, ChunkPos chunkPos) {
+        if (world == this.world && chunkPos.equals(this.chunkPos)) {
+            if (world.getTime() - lastRefreshTime >= REFRESH_INTERVAL) add();
+            return;
+        }
+
+        release();
+        this.world = world;
+        this.chunkPos = chunkPos;
+        add();
+    }
+
+    public boolean isReady() {
+        return world != null && world.getChunkManager().isChunkLoaded(chunkPos.x, chunkPos.z);
+    }
+
+    public void release() {
+        if (world == null) return;
+
+        world.getChunkManager().removeTicket(TeleportManager.TPA_PREWARM, chunkPos, RADIUS);
+        world = null;
+        chunkPos = null;
+    }
+
+    private void add() {
+        // this is version sensitive!
+        world.getChunkManager().addTicket(TeleportManager.TPA_PREWARM, chunkPos, RADIUS);
+        lastRefreshTime = world.getTime();
+    }
+}
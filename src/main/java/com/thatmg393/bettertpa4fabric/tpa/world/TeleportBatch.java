@@ -0,0 +1,96 @@
+package com.thatmg393.bettertpa4fabric.tpa.world;
+
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+import com.thatmg393.bettertpa4fabric.utils.LangKey;
+import com.thatmg393.bettertpa4fabric.utils.MCTextUtils;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.network.packet.s2c.play.PositionFlag;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+/**
+ * Teleports that finished their countdown this tick. They are executed
+ * together at the end of the tick, grouped by destination world and chunk,
+ * so every destination chunk is ticketed once no matter how many players
+ * land in it.
+ * <p>
+ * Only the chunk tickets are batched. The teleport and the success message
+ * still go out per player: both are packets on that player's own connection,
+ * and the message is a shared template render, not a per-player build.
+ */
+public class TeleportBatch {
+    private static final Comparator<Pending> BY_DESTINATION = Comparator
+        .comparingInt((Pending p) -> System.identityHashCode(p.world()))
+        .thenComparingLong(Pending::chunkKey);
+
+    private final ChunkTicketType ticketType;
+    private final int ticketRadius;
+    private final ObjectArrayList<Pending> pending = new ObjectArrayList<>();
+
+    public TeleportBatch(ChunkTicketType ticketType, int ticketRadius) {
+        this.ticketType = ticketType;
+        this.ticketRadius = ticketRadius;
+    }
+
+    /** {@code request} is what the teleport is for, if anything, and is handed back to {@code afterTeleport}. */
+    public void add(@Nullable BaseRequest request, ServerPlayerEntity player, ServerWorld world, BlockPos position, boolean notifyBefore) {
+        pending.add(new Pending(request, player, world, position, ChunkPos.toLong(position.getX() >> 4, position.getZ() >> 4), notifyBefore));
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Runs every pending teleport. {@code beforeTeleport} sees each player
+     * added with {@code notifyBefore} while they are still at their old position; {@code message} is sent to
+     * everyone who was moved, in their own language, and {@code afterTeleport} then gets their request.
+     */
+    public void flush(Consumer<ServerPlayerEntity> beforeTeleport, Consumer<BaseRequest> afterTeleport, LangKey message) {
+        if (pending.isEmpty()) return;
+        if (pending.size() > 1) pending.sort(BY_DESTINATION);
+
+        ServerWorld ticketedWorld = null;
+        long ticketedChunk = 0;
+
+        for (Pending teleport : pending) {
+            if (teleport.world() != ticketedWorld || teleport.chunkKey() != ticketedChunk) {
+                ticketedWorld = teleport.world();
+                ticketedChunk = teleport.chunkKey();
+
+                // this is version sensitive!
+                ticketedWorld.getChunkManager().addChunkLoadingTicket(
+                    ticketType, new ChunkPos(ticketedChunk), ticketRadius
+                );
+            }
+
+            ServerPlayerEntity player = teleport.player();
+            if (teleport.notifyBefore()) beforeTeleport.accept(player);
+
+            BlockPos position = teleport.position();
+            player.teleport(
+                teleport.world(),
+                position.getX(), position.getY(), position.getZ(),
+                PositionFlag.DELTA,
+                player.getYaw(), player.getPitch(),
+                false
+            );
+
+            player.sendMessage(MCTextUtils.fromLang(player, message));
+            if (teleport.request() != null) afterTeleport.accept(teleport.request());
+        }
+
+        pending.clear();
+    }
+
+    private record Pending(@Nullable BaseRequest request, ServerPlayerEntity player, ServerWorld world, BlockPos position, long chunkKey, boolean notifyBefore) { }
+}
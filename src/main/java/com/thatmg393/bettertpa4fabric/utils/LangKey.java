@@ -0,0 +1,48 @@
+package com.thatmg393.bettertpa4fabric.utils;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * A lang key interned to a dense id, used to index the per-locale
+ * template tables in {@link LocaleTables}.
+ */
+public final class LangKey {
+    private static final Object2ObjectOpenHashMap<String, LangKey> BY_KEY = new Object2ObjectOpenHashMap<>();
+    private static final ObjectArrayList<LangKey> BY_ID = new ObjectArrayList<>();
+
+    private final String key;
+    private final int id;
+
+    private LangKey(String key, int id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static synchronized LangKey of(String key) {
+        LangKey existing = BY_KEY.get(key);
+        if (existing != null) return existing;
+
+        LangKey interned = new LangKey(key, BY_ID.size());
+        BY_KEY.put(key, interned);
+        BY_ID.add(interned);
+        return interned;
+    }
+
+    public static synchronized int count() {
+        return BY_ID.size();
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
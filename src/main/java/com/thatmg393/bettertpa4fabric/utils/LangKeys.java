@@ -0,0 +1,63 @@
+package com.thatmg393.bettertpa4fabric.utils;
+
+/** Every message the mod sends, interned up front so lookups are plain array reads. */
+public final class LangKeys {
+    public static final LangKey TELEPORT_COUNTDOWN = LangKey.of("bettertpa4fabric.message.teleport.countdown");
+    public static final LangKey TELEPORT_SUCCESS = LangKey.of("bettertpa4fabric.message.teleport.success");
+    public static final LangKey TELEPORT_BACK = LangKey.of("bettertpa4fabric.message.teleport.back");
+
+    public static final LangKey TPA_SENT = LangKey.of("bettertpa4fabric.message.tpa.sent");
+    public static final LangKey TPA_RECEIVED = LangKey.of("bettertpa4fabric.message.tpa.received");
+    public static final LangKey TPA_ACCEPTED_SENDER = LangKey.of("bettertpa4fabric.message.tpa.accepted.sender");
+    public static final LangKey TPA_ACCEPTED_ACCEPTER = LangKey.of("bettertpa4fabric.message.tpa.accepted.accepter");
+    public static final LangKey TPA_DENIED_SENDER = LangKey.of("bettertpa4fabric.message.tpa.denied.sender");
+    public static final LangKey TPA_DENIED_DENIER = LangKey.of("bettertpa4fabric.message.tpa.denied.denier");
+    public static final LangKey TPA_EXPIRED_SENDER = LangKey.of("bettertpa4fabric.message.tpa.expired.sender");
+    public static final LangKey TPA_EXPIRED_ACCEPTER = LangKey.of("bettertpa4fabric.message.tpa.expired.accepter");
+
+    public static final LangKey TPAHERE_SENT = LangKey.of("bettertpa4fabric.message.tpahere.sent");
+    public static final LangKey TPAHERE_RECEIVED = LangKey.of("bettertpa4fabric.message.tpahere.received");
+    public static final LangKey TPAHERE_ACCEPTED_SENDER = LangKey.of("bettertpa4fabric.message.tpahere.accepted.sender");
+    public static final LangKey TPAHERE_ACCEPTED_ACCEPTER = LangKey.of("bettertpa4fabric.message.tpahere.accepted.accepter");
+    public static final LangKey TPAHERE_DENIED_SENDER = LangKey.of("bettertpa4fabric.message.tpahere.denied.sender");
+    public static final LangKey TPAHERE_DENIED_DENIER = LangKey.of("bettertpa4fabric.message.tpahere.denied.denier");
+    public static final LangKey TPAHERE_EXPIRED_SENDER = LangKey.of("bettertpa4fabric.message.tpahere.expired.sender");
+    public static final LangKey TPAHERE_EXPIRED_ACCEPTER = LangKey.of("bettertpa4fabric.message.tpahere.expired.accepter");
+
+    public static final LangKey TPA_CANCELLED_CANCELLER = LangKey.of("bettertpa4fabric.message.tpa.cancelled.canceller");
+    public static final LangKey TPA_CANCELLED_TARGET = LangKey.of("bettertpa4fabric.message.tpa.cancelled.target");
+
+    public static final LangKey TPA_ALLOW_STATUS = LangKey.of("bettertpa4fabric.message.tpa_allow.status");
+    public static final LangKey TPA_ALLOW_NOTHING_CHANGED = LangKey.of("bettertpa4fabric.message.tpa_allow.nothing_changed");
+    public static final LangKey TPA_ALLOW_ENABLED = LangKey.of("bettertpa4fabric.message.tpa_allow.enabled");
+    public static final LangKey TPA_ALLOW_DISABLED = LangKey.of("bettertpa4fabric.message.tpa_allow.disabled");
+
+    public static final LangKey ERROR_TPA_TO_SELF = LangKey.of("bettertpa4fabric.message.error.tpa_to_self");
+    public static final LangKey ERROR_TPA_NOT_ALLOWED = LangKey.of("bettertpa4fabric.message.error.tpa_not_allowed");
+    public static final LangKey ERROR_ON_COOLDOWN = LangKey.of("bettertpa4fabric.message.error.on_cooldown");
+    public static final LangKey ERROR_EXISTING_REQUEST = LangKey.of("bettertpa4fabric.message.error.existing_request");
+    public static final LangKey ERROR_RECEIVER_REQUEST_LIMIT = LangKey.of("bettertpa4fabric.message.error.receiver_request_limit");
+    public static final LangKey ERROR_SERVER_REQUEST_LIMIT = LangKey.of("bettertpa4fabric.message.error.server_request_limit");
+    public static final LangKey ERROR_REQUEST_EVICTED = LangKey.of("bettertpa4fabric.message.error.request_evicted");
+    public static final LangKey ERROR_ACCEPT_BLOCKED = LangKey.of("bettertpa4fabric.message.error.accept_blocked");
+    public static final LangKey ERROR_TELEPORT_BLOCKED = LangKey.of("bettertpa4fabric.message.error.teleport_blocked");
+    public static final LangKey ERROR_NO_BACK_LOCATION = LangKey.of("bettertpa4fabric.message.error.no_back_location");
+    public static final LangKey ERROR_NO_INCOMING_REQUESTS = LangKey.of("bettertpa4fabric.message.error.no_incoming_requests");
+    public static final LangKey ERROR_NO_REQUEST_FROM_PLAYER = LangKey.of("bettertpa4fabric.message.error.no_request_from_player");
+    public static final LangKey ERROR_NO_REQUEST_TO_PLAYER = LangKey.of("bettertpa4fabric.message.error.no_request_to_player");
+    public static final LangKey ERROR_TARGET_OFFLINE = LangKey.of("bettertpa4fabric.message.error.target_offline");
+    public static final LangKey ERROR_YOU_ARE_TELEPORTING = LangKey.of("bettertpa4fabric.message.error.you_are_teleporting");
+    public static final LangKey ERROR_THEY_ARE_TELEPORTING = LangKey.of("bettertpa4fabric.message.error.they_are_teleporting");
+    public static final LangKey ERROR_RESET_YOU_MOVED = LangKey.of("bettertpa4fabric.message.error.reset.you_moved");
+    public static final LangKey ERROR_RESET_THEY_MOVED = LangKey.of("bettertpa4fabric.message.error.reset.they_moved");
+    public static final LangKey ERROR_CANCELLED_YOU_MOVED = LangKey.of("bettertpa4fabric.message.error.cancelled.you_moved");
+    public static final LangKey ERROR_CANCELLED_THEY_MOVED = LangKey.of("bettertpa4fabric.message.error.cancelled.they_moved");
+    public static final LangKey ERROR_CANCELLED_YOU_DIED = LangKey.of("bettertpa4fabric.message.error.cancelled.you_died");
+    public static final LangKey ERROR_CANCELLED_THEY_DIED = LangKey.of("bettertpa4fabric.message.error.cancelled.they_died");
+    public static final LangKey ERROR_CANCELLED_THEY_LEFT = LangKey.of("bettertpa4fabric.message.error.cancelled.they_left");
+    public static final LangKey ERROR_CANCELLED_TARGET_DIED = LangKey.of("bettertpa4fabric.message.error.cancelled.target_died");
+    public static final LangKey ERROR_CANCELLED_TARGET_DIED_NOTIFY = LangKey.of("bettertpa4fabric.message.error.cancelled.target_died.notify");
+    public static final LangKey ERROR_CANCELLED_TARGET_LEFT = LangKey.of("bettertpa4fabric.message.error.cancelled.target_left");
+
+    private LangKeys() { }
+}
@@ -0,0 +1,118 @@
+package com.thatmg393.bettertpa4fabric.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.thatmg393.bettertpa4fabric.BetterTPA4Fabric;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+
+/**
+ * Every bundled {@code lang/*.json} compiled into one template array per
+ * locale, indexed by {@link LangKey#id()}. Keys a locale doesn't translate
+ * fall back to {@value #DEFAULT_LOCALE} when the tables are built, so a
+ * lookup is a single array read.
+ */
+public final class LocaleTables {
+    public static final String DEFAULT_LOCALE = "en_us";
+
+    private static final Gson GSON = new Gson();
+    private static final String LANG_DIR = "assets/" + BetterTPA4Fabric.MOD_ID + "/lang";
+
+    private static volatile Map<String, MessageTemplate[]> tables = Map.of();
+    private static volatile MessageTemplate[] defaultTable = new MessageTemplate[0];
+
+    private LocaleTables() { }
+
+    public static void load() {
+        Object2ObjectOpenHashMap<String, Map<String, String>> raw = readBundledLangFiles();
+        Map<String, String> fallback = raw.getOrDefault(DEFAULT_LOCALE, Map.of());
+
+        // intern everything first so all tables end up the same length
+        raw.values().forEach(entries -> entries.keySet().forEach(LangKey::of));
+        int size = LangKey.count();
+
+        Object2ObjectOpenHashMap<String, MessageTemplate[]> compiled = new Object2ObjectOpenHashMap<>();
+        MessageTemplate[] compiledDefault = compile(fallback, Map.of(), size);
+        compiled.put(DEFAULT_LOCALE, compiledDefault);
+
+        for (Map.Entry<String, Map<String, String>> locale : raw.entrySet()) {
+            if (locale.getKey().equals(DEFAULT_LOCALE)) continue;
+            compiled.put(locale.getKey(), compile(locale.getValue(), fallback, size));
+        }
+
+        defaultTable = compiledDefault;
+        tables = compiled;
+        BetterTPA4Fabric.LOGGER.info("Loaded {} message locale(s)", compiled.size());
+    }
+
+    /** The template for {@code key} in {@code locale}, falling back to the default locale and then the server language. */
+    public static MessageTemplate get(@Nullable String locale, LangKey key) {
+        MessageTemplate[] table = tableFor(locale);
+
+        int id = key.id();
+        if (id < table.length && table[id] != null) return table[id];
+        return MCTextUtils.template(key.key());
+    }
+
+    private static MessageTemplate[] tableFor(@Nullable String locale) {
+        if (locale == null) return defaultTable;
+        return tables.getOrDefault(locale, defaultTable);
+    }
+
+    private static MessageTemplate[] compile(Map<String, String> entries, Map<String, String> fallback, int size) {
+        MessageTemplate[] table = new MessageTemplate[size];
+
+        for (Map.Entry<String, String> entry : fallback.entrySet()) {
+            table[LangKey.of(entry.getKey()).id()] = MessageTemplate.compile(entry.getValue());
+        }
+
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            table[LangKey.of(entry.getKey()).id()] = MessageTemplate.compile(entry.getValue());
+        }
+
+        return table;
+    }
+
+    private static Object2ObjectOpenHashMap<String, Map<String, String>> readBundledLangFiles() {
+        Object2ObjectOpenHashMap<String, Map<String, String>> raw = new Object2ObjectOpenHashMap<>();
+
+        Optional<Path> langDir = FabricLoader.getInstance().getModContainer(BetterTPA4Fabric.MOD_ID)
+            .flatMap((ModContainer mod) -> mod.findPath(LANG_DIR));
+        if (langDir.isEmpty()) {
+            BetterTPA4Fabric.LOGGER.warn("No bundled lang directory found, messages will use the server language only");
+            return raw;
+        }
+
+        try (Stream<Path> files = Files.list(langDir.get())) {
+            files.filter(path -> path.getFileName().toString().endsWith(".json")).forEach(path -> {
+                String fileName = path.getFileName().toString();
+                String locale = fileName.substring(0, fileName.length() - ".json".length());
+
+                try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    Map<String, String> entries = GSON.fromJson(reader, new TypeToken<Map<String, String>>() { }.getType());
+                    if (entries != null) raw.put(locale, entries);
+                } catch (IOException | JsonSyntaxException e) {
+                    BetterTPA4Fabric.LOGGER.error("Failed to load lang file " + fileName + "! " + e.toString());
+                }
+            });
+        } catch (IOException e) {
+            BetterTPA4Fabric.LOGGER.error("Failed to list lang files! " + e.toString());
+        }
+
+        return raw;
+    }
+}
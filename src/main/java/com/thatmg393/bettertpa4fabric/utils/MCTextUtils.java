@@ -1,11 +1,18 @@
 package com.thatmg393.bettertpa4fabric.utils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.slf4j.helpers.MessageFormatter;
 
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
+import net.minecraft.util.Language;
 
 public class MCTextUtils {
+    private static final Map<String, MessageTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
     public static MutableText textOf(String s) {
         return Text.literal(s);
     }
@@ -14,15 +21,37 @@ public class MCTextUtils {
         return Text.literal(MessageFormatter.basicArrayFormat(s, formats));
     }
 
-    public static MutableText fromLang(String key) {
-        return textOf(fromLangAsStr(key));
+    public static Text fromLang(String key) {
+        return template(key).render();
     }
 
     public static String fromLangAsStr(String key) {
-        return Text.translatable(key).getString();
+        return Language.getInstance().get(key);
+    }
+
+    public static Text fromLang(String key, Object... formats) {
+        return template(key).render(formats);
+    }
+
+    /** Renders {@code key} in the language {@code recipient}'s client is set to. */
+    public static Text fromLang(ServerPlayerEntity recipient, LangKey key) {
+        return LocaleTables.get(localeOf(recipient), key).render();
+    }
+
+    public static Text fromLang(ServerPlayerEntity recipient, LangKey key, Object... formats) {
+        return LocaleTables.get(localeOf(recipient), key).render(formats);
+    }
+
+    public static MessageTemplate template(String key) {
+        return TEMPLATES.computeIfAbsent(key, k -> MessageTemplate.compile(fromLangAsStr(k)));
+    }
+
+    /** Drops every compiled template so they get recompiled from the current language on next use. */
+    public static void reloadTemplates() {
+        TEMPLATES.clear();
     }
 
-    public static MutableText fromLang(String key, Object... formats) {
-        return textOf(fromLangAsStr(key), formats);
+    private static String localeOf(ServerPlayerEntity player) {
+        return player == null ? null : player.getClientOptions().language();
     }
 }
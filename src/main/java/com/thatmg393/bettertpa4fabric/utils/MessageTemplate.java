@@ -0,0 +1,120 @@
+package com.thatmg393.bettertpa4fabric.utils;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+
+/**
+ * A lang string compiled once into styled literal and {@code {}} placeholder
+ * segments. Supports {@code &}/{@code §} formatting codes, e.g.
+ * {@code "&aTeleported &7to &e{}"}.
+ *
+ * Literal segments are prebuilt {@link Text}s shared by every render, so
+ * rendering only allocates the root and one text per placeholder.
+ */
+public final class MessageTemplate {
+    private static final Text[] NO_SEGMENTS = new Text[0];
+
+    // a null literal means "placeholder", styled with the matching entry of placeholderStyles
+    private final Text[] literals;
+    private final Style[] placeholderStyles;
+    private final Text constant;
+
+    private MessageTemplate(Text[] literals, Style[] placeholderStyles) {
+        this.literals = literals;
+        this.placeholderStyles = placeholderStyles;
+        this.constant = hasPlaceholders() ? null : render(new Object[0]);
+    }
+
+    public static MessageTemplate compile(String raw) {
+        ObjectArrayList<Text> literals = new ObjectArrayList<>();
+        ObjectArrayList<Style> styles = new ObjectArrayList<>();
+
+        Style style = Style.EMPTY;
+        StringBuilder current = new StringBuilder();
+
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+
+            if ((c == '&' || c == '§') && i + 1 < raw.length()) {
+                Formatting formatting = Formatting.byCode(raw.charAt(i + 1));
+                if (formatting != null) {
+                    flush(current, style, literals, styles);
+                    style = applyFormatting(style, formatting);
+                    i++;
+                    continue;
+                }
+            }
+
+            if (c == '{' && i + 1 < raw.length() && raw.charAt(i + 1) == '}') {
+                flush(current, style, literals, styles);
+                literals.add(null);
+                styles.add(style);
+                i++;
+                continue;
+            }
+
+            current.append(c);
+        }
+        flush(current, style, literals, styles);
+
+        return new MessageTemplate(literals.toArray(NO_SEGMENTS), styles.toArray(new Style[0]));
+    }
+
+    public boolean hasPlaceholders() {
+        for (Text literal : literals) {
+            if (literal == null) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fills the placeholders in order. {@link Text} arguments are inserted as-is,
+     * anything else goes through {@link String#valueOf(Object)}.
+     * The result may be shared and must not be modified.
+     */
+    public Text render(Object... args) {
+        if (constant != null) return constant;
+
+        MutableText root = Text.empty();
+        int argIndex = 0;
+
+        for (int i = 0; i < literals.length; i++) {
+            Text literal = literals[i];
+            if (literal != null) {
+                root.append(literal);
+                continue;
+            }
+
+            if (argIndex >= args.length) {
+                root.append(Text.literal("{}").setStyle(placeholderStyles[i]));
+                continue;
+            }
+
+            Object arg = args[argIndex++];
+            if (arg instanceof Text text) {
+                root.append(placeholderStyles[i].isEmpty() ? text : text.copy().fillStyle(placeholderStyles[i]));
+            } else {
+                root.append(Text.literal(String.valueOf(arg)).setStyle(placeholderStyles[i]));
+            }
+        }
+
+        return root;
+    }
+
+    private static void flush(StringBuilder current, Style style, ObjectArrayList<Text> literals, ObjectArrayList<Style> styles) {
+        if (current.isEmpty()) return;
+
+        literals.add(Text.literal(current.toString()).setStyle(style));
+        styles.add(style);
+        current.setLength(0);
+    }
+
+    private static Style applyFormatting(Style style, Formatting formatting) {
+        if (formatting == Formatting.RESET) return Style.EMPTY;
+        if (formatting.isColor()) return Style.EMPTY.withColor(formatting);
+        return style.withFormatting(formatting);
+    }
+}
@@ -0,0 +1,167 @@
+package com.thatmg393.bettertpa4fabric.persist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+public class RecordLogTest {
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void readsBackEveryRecordInOrder() throws IOException {
+        Path path = dir.resolve("log");
+        write(path, "first", "second", "third");
+
+        assertEquals(List.of("first", "second", "third"), readAll(path));
+    }
+
+    @Test
+    public void dropsATornLastFrame() throws IOException {
+        Path path = dir.resolve("log");
+        write(path, "first", "second", "third");
+        long intact = frameSize("first") + frameSize("second");
+
+        // the crash hit half way through the last payload
+        truncate(path, intact + HEADER_SIZE + 2);
+
+        assertEquals(List.of("first", "second"), readAll(path));
+        assertEquals(intact, Files.size(path));
+    }
+
+    @Test
+    public void dropsATornLastHeader() throws IOException {
+        Path path = dir.resolve("log");
+        write(path, "first", "second", "third");
+        long intact = frameSize("first") + frameSize("second");
+
+        truncate(path, intact + 3);
+
+        assertEquals(List.of("first", "second"), readAll(path));
+        assertEquals(intact, Files.size(path));
+    }
+
+    @Test
+    public void dropsALastFrameWithABadChecksum() throws IOException {
+        Path path = dir.resolve("log");
+        write(path, "first", "second", "third");
+        long intact = frameSize("first") + frameSize("second");
+
+        overwrite(path, intact + HEADER_SIZE, (byte) 'T');
+
+        assertEquals(List.of("first", "second"), readAll(path));
+        assertEquals(intact, Files.size(path));
+    }
+
+    @Test
+    public void dropsALastFrameWithABadLength() throws IOException {
+        Path path = dir.resolve("log");
+        write(path, "first", "second", "third");
+        long intact = frameSize("first") + frameSize("second");
+
+        // length's top byte, now far past the end of the file
+        overwrite(path, intact, (byte) 0x7f);
+
+        assertEquals(List.of("first", "second"), readAll(path));
+        assertEquals(intact, Files.size(path));
+    }
+
+    @Test
+    public void appendsAfterTheLastGoodRecordOnceRecovered() throws IOException {
+        Path path = dir.resolve("log");
+        write(path, "first", "second", "third");
+        truncate(path, frameSize("first") + frameSize("second") + 1);
+
+        try (RecordLog log = RecordLog.open(path, record -> { })) {
+            assertEquals(2, log.getRecordCount());
+            log.append(List.of(bytes("fourth")));
+            assertEquals(3, log.getRecordCount());
+        }
+
+        assertEquals(List.of("first", "second", "fourth"), readAll(path));
+    }
+
+    @Test
+    public void rewriteReplacesEverything() throws IOException {
+        Path path = dir.resolve("log");
+        write(path, "first", "second", "third");
+
+        try (RecordLog log = RecordLog.open(path, record -> { })) {
+            log.rewrite(List.of(bytes("only")));
+            assertEquals(1, log.getRecordCount());
+            log.append(List.of(bytes("after")));
+        }
+
+        assertEquals(List.of("only", "after"), readAll(path));
+        assertEquals(List.of(), listOtherFiles(path));
+    }
+
+    @Test
+    public void rejectsOversizedRecords() throws IOException {
+        Path path = dir.resolve("log");
+
+        try (RecordLog log = RecordLog.open(path, record -> { })) {
+            assertThrows(IllegalArgumentException.class, () -> log.append(List.of(new byte[RecordLog.MAX_RECORD_SIZE + 1])));
+            assertEquals(0, log.getRecordCount());
+        }
+
+        assertEquals(0, Files.size(path));
+    }
+
+    private static void write(Path path, String... records) throws IOException {
+        ObjectArrayList<byte[]> payloads = new ObjectArrayList<>();
+        for (String record : records) payloads.add(bytes(record));
+
+        try (RecordLog log = RecordLog.open(path, record -> { })) {
+            log.append(payloads);
+        }
+    }
+
+    private static List<String> readAll(Path path) throws IOException {
+        ObjectArrayList<String> records = new ObjectArrayList<>();
+        RecordLog.open(path, record -> records.add(StandardCharsets.UTF_8.decode(record).toString())).close();
+        return records;
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static void overwrite(Path path, long position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { value }), position);
+        }
+    }
+
+    private List<Path> listOtherFiles(Path path) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> !file.equals(path)).toList();
+        }
+    }
+
+    private static long frameSize(String record) {
+        return HEADER_SIZE + bytes(record).length;
+    }
+
+    private static byte[] bytes(String record) {
+        return record.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,147 @@
+package com.thatmg393.bettertpa4fabric.persist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.thatmg393.bettertpa4fabric.persist.RequestJournal.Entry;
+import com.thatmg393.bettertpa4fabric.persist.RequestJournal.Kind;
+
+public class RequestJournalTest {
+    private static final long EXPIRE_MILLIS = 60_000;
+
+    private static final UUID ALICE = new UUID(0, 1);
+    private static final UUID BOB = new UUID(0, 2);
+    private static final UUID CAROL = new UUID(0, 3);
+    private static final UUID DAVE = new UUID(0, 4);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void replaysCreatedAcceptedAndClosedRequests() throws IOException {
+        long now = System.currentTimeMillis();
+
+        RequestJournal journal = RequestJournal.open(dir, EXPIRE_MILLIS);
+        journal.created(ALICE, BOB, Kind.TPA, now - 3);
+        journal.created(CAROL, BOB, Kind.TPA_HERE, now - 2);
+        journal.created(DAVE, BOB, Kind.TPA, now - 1);
+        journal.accepted(ALICE, BOB, Kind.TPA, now - 3);
+        journal.closed(CAROL, BOB);
+        journal.close();
+
+        assertEquals(List.of(
+            new Entry(ALICE, BOB, Kind.TPA, now - 3, true),
+            new Entry(DAVE, BOB, Kind.TPA, now - 1, false)
+        ), reopen());
+    }
+
+    @Test
+    public void finishedLeavesANewerPendingRequestAlone() throws IOException {
+        long now = System.currentTimeMillis();
+
+        RequestJournal journal = RequestJournal.open(dir, EXPIRE_MILLIS);
+        journal.created(ALICE, BOB, Kind.TPA, now - 2);
+        journal.accepted(ALICE, BOB, Kind.TPA, now - 2);
+        // sent again while the first one was still counting down
+        journal.created(ALICE, BOB, Kind.TPA_HERE, now - 1);
+        journal.finished(ALICE, BOB);
+        journal.created(CAROL, DAVE, Kind.TPA, now);
+        journal.accepted(CAROL, DAVE, Kind.TPA, now);
+        journal.finished(CAROL, DAVE);
+        journal.close();
+
+        assertEquals(List.of(new Entry(ALICE, BOB, Kind.TPA_HERE, now - 1, false)), reopen());
+    }
+
+    @Test
+    public void dropsExpiredRequestsOnOpen() throws IOException {
+        long now = System.currentTimeMillis();
+
+        RequestJournal journal = RequestJournal.open(dir, EXPIRE_MILLIS);
+        journal.created(ALICE, BOB, Kind.TPA, now - EXPIRE_MILLIS - 1_000);
+        journal.created(CAROL, BOB, Kind.TPA, now);
+        journal.close();
+
+        assertEquals(List.of(new Entry(CAROL, BOB, Kind.TPA, now, false)), reopen());
+    }
+
+    @Test
+    public void rollsOverIntoASnapshotSegment() throws IOException {
+        long now = System.currentTimeMillis();
+
+        RequestJournal journal = RequestJournal.open(dir, EXPIRE_MILLIS, 4);
+        for (int i = 0; i < 10; i++) {
+            journal.created(new UUID(1, i), BOB, Kind.TPA, now + i);
+        }
+        for (int i = 0; i < 10; i += 2) {
+            journal.closed(new UUID(1, i), BOB);
+        }
+        journal.close();
+
+        // the first segment filled up, so it was replaced by at least one snapshot
+        List<String> segments = listSegments();
+        assertEquals(1, segments.size());
+        assertNotEquals("requests-000001.log", segments.get(0));
+
+        List<Entry> restored = reopen();
+        assertEquals(5, restored.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(new Entry(new UUID(1, 2 * i + 1), BOB, Kind.TPA, now + 2 * i + 1, false), restored.get(i));
+        }
+    }
+
+    @Test
+    public void replaysLeftoverSegmentsInNumericOrder() throws IOException {
+        long now = System.currentTimeMillis();
+
+        Path old = dir.resolve("old");
+        RequestJournal journal = RequestJournal.open(old, EXPIRE_MILLIS);
+        journal.created(ALICE, BOB, Kind.TPA, now);
+        journal.close();
+
+        Path stale = old.resolve(listSegments(old).get(0));
+        Path current = dir.resolve("current");
+        Files.createDirectories(current);
+        Files.copy(stale, current.resolve("requests-999999.log"));
+
+        // picks up from 999999, snapshots into 1000000 and deletes 999999
+        journal = RequestJournal.open(current, EXPIRE_MILLIS);
+        assertEquals(List.of(new Entry(ALICE, BOB, Kind.TPA, now, false)), journal.getRestored());
+        journal.closed(ALICE, BOB);
+        journal.close();
+        assertEquals(List.of("requests-1000000.log"), listSegments(current));
+
+        // as if the server died before 999999 was deleted: it has to replay before 1000000, not after it
+        Files.copy(stale, current.resolve("requests-999999.log"));
+        journal = RequestJournal.open(current, EXPIRE_MILLIS);
+        assertEquals(List.of(), journal.getRestored());
+        journal.close();
+        assertEquals(List.of("requests-1000001.log"), listSegments(current));
+    }
+
+    private List<Entry> reopen() throws IOException {
+        RequestJournal journal = RequestJournal.open(dir, EXPIRE_MILLIS);
+        journal.close();
+        return journal.getRestored();
+    }
+
+    private List<String> listSegments() throws IOException {
+        return listSegments(dir);
+    }
+
+    private static List<String> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(".log")).sorted().toList();
+        }
+    }
+}
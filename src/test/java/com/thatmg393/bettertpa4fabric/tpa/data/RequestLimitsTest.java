@@ -0,0 +1,206 @@
+package com.thatmg393.bettertpa4fabric.tpa.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.thatmg393.bettertpa4fabric.config.ConfigSnapshot;
+import com.thatmg393.bettertpa4fabric.config.data.ModConfigData;
+import com.thatmg393.bettertpa4fabric.config.data.RequestOverflowPolicy;
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueue;
+import com.thatmg393.bettertpa4fabric.tpa.queue.RequestQueueListener;
+import com.thatmg393.bettertpa4fabric.tpa.request.TPARequest;
+import com.thatmg393.bettertpa4fabric.tpa.request.base.BaseRequest;
+
+public class RequestLimitsTest {
+    private static final long NOW = 1_000_000_000L;
+    private static final int SENDER = 0;
+
+    private final RequestRateLimiter rateLimiter = new RequestRateLimiter();
+    private final RequestLimits limits = new RequestLimits(rateLimiter);
+    private final RequestQueueListener<UUID, BaseRequest> listener = listenerFor(limits);
+
+    private long nextSender;
+
+    @Test
+    public void rejectNewestTurnsAwayAtThePlayerLimit() {
+        ConfigSnapshot config = config(3, RequestOverflowPolicy.REJECT_NEWEST, 100);
+        RequestQueue<UUID, BaseRequest> queue = queueWith(2, 0);
+
+        assertEquals(0, limits.admit(queue, SENDER, NOW, config));
+
+        fill(queue, 1, 0);
+        assertEquals(RequestLimits.RECEIVER_FULL, limits.admit(queue, SENDER, NOW, config));
+    }
+
+    @Test
+    public void evictOldestMakesRoomAtThePlayerLimit() {
+        RequestQueue<UUID, BaseRequest> queue = queueWith(3, 0);
+
+        assertEquals(1, limits.admit(queue, SENDER, NOW, config(3, RequestOverflowPolicy.EVICT_OLDEST, 100)));
+        // the limit was lowered by a reload while the queue was full
+        assertEquals(2, limits.admit(queue, SENDER, NOW, config(2, RequestOverflowPolicy.EVICT_OLDEST, 100)));
+    }
+
+    @Test
+    public void evictExpiredFirstOnlyEvictsExpiredRequests() {
+        ConfigSnapshot config = config(3, RequestOverflowPolicy.EVICT_EXPIRED_FIRST, 100);
+        long expired = NOW - config.expireMillis() - 1;
+
+        RequestQueue<UUID, BaseRequest> queue = queueWith(1, expired);
+        fill(queue, 2, NOW);
+        assertEquals(1, limits.admit(queue, SENDER, NOW, config));
+
+        // needs two gone, only one of them has expired
+        assertEquals(RequestLimits.RECEIVER_FULL, limits.admit(queue, SENDER, NOW, config(2, RequestOverflowPolicy.EVICT_EXPIRED_FIRST, 100)));
+
+        RequestQueue<UUID, BaseRequest> fresh = queueWith(3, NOW);
+        assertEquals(RequestLimits.RECEIVER_FULL, limits.admit(fresh, SENDER, NOW, config));
+    }
+
+    @Test
+    public void evictExpiredFirstCountsAnExactlyDueRequestAsLive() {
+        ConfigSnapshot config = config(1, RequestOverflowPolicy.EVICT_EXPIRED_FIRST, 100);
+
+        RequestQueue<UUID, BaseRequest> queue = queueWith(1, NOW - config.expireMillis());
+        assertEquals(RequestLimits.RECEIVER_FULL, limits.admit(queue, SENDER, NOW, config));
+        assertEquals(1, limits.admit(queue, SENDER, NOW + 1, config));
+    }
+
+    @Test
+    public void turnsAwayAtTheGlobalCap() {
+        for (RequestOverflowPolicy policy : RequestOverflowPolicy.values()) {
+            RequestLimits server = new RequestLimits(new RequestRateLimiter());
+            ConfigSnapshot config = config(10, policy, 3);
+
+            RequestQueue<UUID, BaseRequest> first = new RequestQueue<>(UUID.randomUUID(), listenerFor(server));
+            RequestQueue<UUID, BaseRequest> second = new RequestQueue<>(UUID.randomUUID(), listenerFor(server));
+            fill(first, 2, NOW);
+            assertEquals(0, server.admit(second, SENDER, NOW, config), policy.name());
+
+            fill(second, 1, NOW);
+            assertEquals(3, server.getPendingRequests());
+            assertEquals(RequestLimits.SERVER_FULL, server.admit(second, SENDER, NOW, config), policy.name());
+
+            second.consume();
+            assertEquals(0, server.admit(second, SENDER, NOW, config), policy.name());
+        }
+    }
+
+    @Test
+    public void evictionsFreeUpRoomUnderTheGlobalCap() {
+        ConfigSnapshot config = config(2, RequestOverflowPolicy.EVICT_OLDEST, 3);
+        RequestQueue<UUID, BaseRequest> full = queueWith(2, NOW);
+        RequestQueue<UUID, BaseRequest> other = queueWith(1, NOW);
+
+        assertEquals(3, limits.getPendingRequests());
+        // the one evicted from the full queue makes room for the new one
+        assertEquals(1, limits.admit(full, SENDER, NOW, config));
+        assertEquals(RequestLimits.SERVER_FULL, limits.admit(other, SENDER, NOW, config));
+    }
+
+    @Test
+    public void playerLimitIsCheckedBeforeTheGlobalCap() {
+        ConfigSnapshot config = config(2, RequestOverflowPolicy.REJECT_NEWEST, 2);
+        RequestQueue<UUID, BaseRequest> queue = queueWith(2, NOW);
+
+        assertEquals(RequestLimits.RECEIVER_FULL, limits.admit(queue, SENDER, NOW, config));
+    }
+
+    @Test
+    public void restoredRequestsCountTowardsTheGlobalCap() {
+        ConfigSnapshot config = config(10, RequestOverflowPolicy.EVICT_OLDEST, 3);
+        RequestQueue<UUID, BaseRequest> queue = queueWith(0, NOW);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limits.hasRoomForRestored(queue, config));
+            fill(queue, 1, NOW - 1_000);
+        }
+
+        assertFalse(limits.hasRoomForRestored(queue, config));
+        assertEquals(RequestLimits.SERVER_FULL, limits.admit(queueWith(0, NOW), SENDER, NOW, config));
+    }
+
+    @Test
+    public void restoredRequestsNeverEvict() {
+        // a new request would push out the oldest here, a restored one is dropped instead
+        ConfigSnapshot config = config(2, RequestOverflowPolicy.EVICT_OLDEST, 100);
+        RequestQueue<UUID, BaseRequest> queue = queueWith(1, NOW);
+
+        assertTrue(limits.hasRoomForRestored(queue, config));
+        fill(queue, 1, NOW);
+        assertFalse(limits.hasRoomForRestored(queue, config));
+        assertEquals(1, limits.admit(queue, SENDER, NOW, config));
+    }
+
+    @Test
+    public void requestsTurnedAwayByALimitKeepTheirToken() {
+        ConfigSnapshot full = withCooldown(1, RequestOverflowPolicy.REJECT_NEWEST, 100, 5, 1);
+        RequestQueue<UUID, BaseRequest> queue = queueWith(1, NOW);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(RequestLimits.RECEIVER_FULL, limits.admit(queue, SENDER, NOW, full));
+        }
+        assertEquals(0, rateLimiter.get(SENDER));
+
+        RequestQueue<UUID, BaseRequest> empty = queueWith(0, NOW);
+        assertEquals(0, limits.admit(empty, SENDER, NOW, full));
+        assertEquals(RequestLimits.RATE_LIMITED, limits.admit(empty, SENDER, NOW + 1_000, full));
+        assertEquals(4_000, limits.getRetryAfterMillis());
+    }
+
+    @Test
+    public void sendersWithoutABucketAreNeverRateLimited() {
+        ConfigSnapshot config = withCooldown(10, RequestOverflowPolicy.REJECT_NEWEST, 100, 5, 1);
+        RequestQueue<UUID, BaseRequest> queue = queueWith(0, NOW);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limits.admit(queue, OnlinePlayers.NONE, NOW, config));
+        }
+    }
+
+    private RequestQueue<UUID, BaseRequest> queueWith(int requests, long createdAt) {
+        RequestQueue<UUID, BaseRequest> queue = new RequestQueue<>(UUID.randomUUID(), listener);
+        fill(queue, requests, createdAt);
+        return queue;
+    }
+
+    private void fill(RequestQueue<UUID, BaseRequest> queue, int requests, long createdAt) {
+        for (int i = 0; i < requests; i++) {
+            queue.add(new UUID(0, nextSender++), new TPARequest(null, null, createdAt));
+        }
+    }
+
+    // what TeleportManager's queue listener does with the pending count
+    private static RequestQueueListener<UUID, BaseRequest> listenerFor(RequestLimits limits) {
+        return new RequestQueueListener<>() {
+            @Override
+            public void onRequestAdded(UUID owner, UUID sender, BaseRequest request) {
+                limits.onRequestAdded();
+            }
+
+            @Override
+            public void onRequestRemoved(UUID owner, UUID sender, BaseRequest request) {
+                limits.onRequestRemoved();
+            }
+        };
+    }
+
+    private static ConfigSnapshot config(int requestLimit, RequestOverflowPolicy policy, int globalRequestLimit) {
+        return withCooldown(requestLimit, policy, globalRequestLimit, 0, 1);
+    }
+
+    private static ConfigSnapshot withCooldown(int requestLimit, RequestOverflowPolicy policy, int globalRequestLimit, int cooldownSeconds, int burst) {
+        ModConfigData data = new ModConfigData();
+        data.tpaCooldown = cooldownSeconds;
+        data.tpaCooldownBurst = burst;
+        data.tpaRequestLimit = requestLimit;
+        data.requestOverflowPolicy = policy;
+        data.globalRequestLimit = globalRequestLimit;
+        return ConfigSnapshot.of(data);
+    }
+}
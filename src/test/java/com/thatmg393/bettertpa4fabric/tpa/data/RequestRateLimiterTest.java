@@ -0,0 +1,89 @@
+package com.thatmg393.bettertpa4fabric.tpa.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class RequestRateLimiterTest {
+    private static final long START = 1_000_000L;
+    private static final long INTERVAL = 5_000;
+    private static final int BURST = 3;
+
+    private final RequestRateLimiter limiter = new RequestRateLimiter();
+
+    @Test
+    public void allowsAFullBurstThenWaits() {
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, limiter.tryAcquire(0, START, INTERVAL, BURST), "token " + i);
+        }
+
+        assertEquals(INTERVAL, limiter.tryAcquire(0, START, INTERVAL, BURST));
+        assertEquals(INTERVAL - 1_000, limiter.tryAcquire(0, START + 1_000, INTERVAL, BURST));
+    }
+
+    @Test
+    public void refillsOneTokenPerInterval() {
+        for (int i = 0; i < BURST; i++) limiter.tryAcquire(0, START, INTERVAL, BURST);
+
+        // one token a period, never more, however steadily it's asked for
+        for (int period = 1; period <= 10; period++) {
+            long now = START + period * INTERVAL;
+            assertEquals(1, limiter.tryAcquire(0, now - 1, INTERVAL, BURST), "period " + period + ", early");
+            assertEquals(0, limiter.tryAcquire(0, now, INTERVAL, BURST), "period " + period);
+            assertEquals(INTERVAL, limiter.tryAcquire(0, now, INTERVAL, BURST), "period " + period + ", again");
+        }
+    }
+
+    @Test
+    public void refillsUpToTheBurstAfterAnIdleSpell() {
+        for (int i = 0; i < BURST; i++) limiter.tryAcquire(0, START, INTERVAL, BURST);
+
+        long later = START + 100 * INTERVAL;
+        for (int i = 0; i < BURST; i++) {
+            assertEquals(0, limiter.tryAcquire(0, later, INTERVAL, BURST), "token " + i);
+        }
+        assertEquals(INTERVAL, limiter.tryAcquire(0, later, INTERVAL, BURST));
+    }
+
+    @Test
+    public void rejectedAttemptsDontUseUpTokens() {
+        for (int i = 0; i < BURST; i++) limiter.tryAcquire(0, START, INTERVAL, BURST);
+        long state = limiter.get(0);
+
+        for (long now = START; now < START + INTERVAL; now += 250) {
+            assertEquals(START + INTERVAL - now, limiter.tryAcquire(0, now, INTERVAL, BURST));
+        }
+
+        assertEquals(state, limiter.get(0));
+        assertEquals(0, limiter.tryAcquire(0, START + INTERVAL, INTERVAL, BURST));
+    }
+
+    @Test
+    public void bucketsAreSeparate() {
+        for (int i = 0; i < BURST; i++) limiter.tryAcquire(0, START, INTERVAL, BURST);
+
+        assertEquals(0, limiter.tryAcquire(100, START, INTERVAL, BURST));
+        assertEquals(INTERVAL, limiter.tryAcquire(0, START, INTERVAL, BURST));
+    }
+
+    @Test
+    public void restoredStateCarriesTheCooldownOver() {
+        for (int i = 0; i < BURST; i++) limiter.tryAcquire(0, START, INTERVAL, BURST);
+        long state = limiter.get(0);
+
+        RequestRateLimiter restarted = new RequestRateLimiter();
+        restarted.set(7, state);
+        assertEquals(INTERVAL, restarted.tryAcquire(7, START, INTERVAL, BURST));
+
+        restarted.set(7, 0);
+        assertEquals(0, restarted.tryAcquire(7, START, INTERVAL, BURST));
+    }
+
+    @Test
+    public void zeroIntervalNeverLimits() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, limiter.tryAcquire(0, START, 0, 1));
+        }
+        assertEquals(0, limiter.get(0));
+    }
+}
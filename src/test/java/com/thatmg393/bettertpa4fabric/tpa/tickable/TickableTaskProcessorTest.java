@@ -0,0 +1,222 @@
+package com.thatmg393.bettertpa4fabric.tpa.tickable;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import com.thatmg393.bettertpa4fabric.tpa.tickable.task.base.TickableTask;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+public class TickableTaskProcessorTest {
+    // TickableTaskProcessor.MAX_DELAY, the furthest the wheel can park a task in one go
+    private static final long MAX_DELAY = (1L << 24) - 1;
+
+    private final TickableTaskProcessor<TickableTask> processor = new TickableTaskProcessor<>();
+
+    @Test
+    public void wakesExactlyOnLevelBoundaries() {
+        // a task added on tick 0 first runs on tick 1, so a wake interval of n - 1 lands it on tick n
+        long[] intervals = { 63, 64, 65, 4095, 4096, 4097, 262143, 262144, 262145 };
+        RecordingTask[] tasks = new RecordingTask[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            long interval = intervals[i];
+            tasks[i] = new RecordingTask(Long.MAX_VALUE, ticksLeft -> interval);
+            processor.putTask(tasks[i]);
+        }
+
+        runUntil(1 + 2 * 262145);
+
+        for (int i = 0; i < intervals.length; i++) {
+            long interval = intervals[i];
+            long[] expected = { 1, 1 + interval, 1 + 2 * interval };
+            long[] ran = tasks[i].ranOn.toLongArray();
+            assertArrayEquals(expected, Arrays.copyOf(ran, Math.min(ran.length, 3)), "wake interval " + interval);
+        }
+    }
+
+    @Test
+    public void wakesAfterDelaysLongerThanTheWheel() {
+        long interval = MAX_DELAY + 1000;
+        RecordingTask task = new RecordingTask(Long.MAX_VALUE, ticksLeft -> interval);
+        TaskHandle handle = processor.putTask(task);
+
+        runUntil(1);
+        assertEquals(1 + interval, handle.getDeadline());
+
+        runUntil(1 + interval);
+        assertArrayEquals(new long[] { 1, 1 + interval }, task.ranOn.toLongArray());
+        // the ticks slept through still came off the countdown
+        assertEquals(Long.MAX_VALUE - 1 - interval, task.getTickDuration());
+    }
+
+    @Test
+    public void cancellingItselfFromOnTickStopsIt() {
+        TaskHandle[] self = new TaskHandle[1];
+        RecordingTask task = new RecordingTask(100, ticksLeft -> 5) {
+            @Override
+            protected TickResult onTick() {
+                super.onTick();
+                self[0].cancel();
+                return TickResult.CONTINUE;
+            }
+        };
+        self[0] = processor.putTask(task);
+
+        runUntil(50);
+
+        assertArrayEquals(new long[] { 1 }, task.ranOn.toLongArray());
+        assertFalse(self[0].isActive());
+        assertEquals(0, processor.getTaskCount());
+    }
+
+    @Test
+    public void cancellingAnotherDueTaskFromOnTickSkipsIt() {
+        TaskHandle[] victim = new TaskHandle[1];
+        RecordingTask canceller = new RecordingTask(100, ticksLeft -> 3) {
+            @Override
+            protected TickResult onTick() {
+                if (processor.getCurrentTick() == 4) victim[0].cancel();
+                return super.onTick();
+            }
+        };
+        RecordingTask other = new RecordingTask(100, ticksLeft -> 3);
+
+        // both are due on the same ticks, the canceller runs first
+        processor.putTask(canceller);
+        victim[0] = processor.putTask(other);
+
+        runUntil(10);
+
+        assertArrayEquals(new long[] { 1, 4, 7, 10 }, canceller.ranOn.toLongArray());
+        assertArrayEquals(new long[] { 1 }, other.ranOn.toLongArray());
+        assertEquals(1, processor.getTaskCount());
+    }
+
+    @Test
+    public void continueCountsSleptTicks() {
+        RecordingTask task = new RecordingTask(10, ticksLeft -> Math.min(3, ticksLeft));
+        processor.putTask(task);
+
+        runUntil(20);
+
+        assertArrayEquals(new long[] { 1, 4, 7, 10 }, task.ranOn.toLongArray());
+        assertArrayEquals(new long[] { 10 }, task.finishedOn.toLongArray());
+        assertEquals(0, processor.getTaskCount());
+    }
+
+    @Test
+    public void pauseDoesNotCountSleptTicks() {
+        RecordingTask task = new RecordingTask(10, ticksLeft -> Math.min(3, ticksLeft)) {
+            @Override
+            protected TickResult onTick() {
+                super.onTick();
+                return ranOn.size() <= 2 ? TickResult.PAUSE : TickResult.CONTINUE;
+            }
+        };
+        processor.putTask(task);
+
+        runUntil(30);
+
+        // paused on ticks 1 and 4, the ten tick countdown only starts on tick 7
+        assertArrayEquals(new long[] { 1, 4, 7, 10, 13, 16 }, task.ranOn.toLongArray());
+        assertArrayEquals(new long[] { 16 }, task.finishedOn.toLongArray());
+    }
+
+    @Test
+    public void cancelStopsWithoutFinishing() {
+        RecordingTask task = new RecordingTask(10, ticksLeft -> 4) {
+            @Override
+            protected TickResult onTick() {
+                super.onTick();
+                return ranOn.size() == 2 ? TickResult.CANCEL : TickResult.CONTINUE;
+            }
+        };
+        processor.putTask(task);
+
+        runUntil(30);
+
+        assertArrayEquals(new long[] { 1, 5 }, task.ranOn.toLongArray());
+        assertEquals(0, task.finishedOn.size());
+        assertEquals(0, processor.getTaskCount());
+    }
+
+    @Test
+    public void resetRestartsTheCountdown() {
+        RecordingTask task = new RecordingTask(10, ticksLeft -> Math.min(4, ticksLeft)) {
+            @Override
+            protected TickResult onTick() {
+                super.onTick();
+                return ranOn.size() == 2 ? TickResult.RESET : TickResult.CONTINUE;
+            }
+        };
+        processor.putTask(task);
+
+        runUntil(30);
+
+        // reset on tick 5, which starts the countdown over as a first tick
+        assertEquals(2, task.firstTicks);
+        assertArrayEquals(new long[] { 1, 5, 9, 13, 17, 18 }, task.ranOn.toLongArray());
+        assertArrayEquals(new long[] { 18 }, task.finishedOn.toLongArray());
+    }
+
+    @Test
+    public void repeatFinishesOnEveryPeriod() {
+        RecordingTask task = new RecordingTask(5, ticksLeft -> ticksLeft) {
+            @Override
+            protected TickResult onTick() {
+                super.onTick();
+                return TickResult.REPEAT;
+            }
+        };
+        processor.putTask(task);
+
+        runUntil(20);
+
+        assertArrayEquals(new long[] { 1, 5, 10, 15, 20 }, task.ranOn.toLongArray());
+        assertArrayEquals(new long[] { 5, 10, 15, 20 }, task.finishedOn.toLongArray());
+        assertEquals(1, processor.getTaskCount());
+    }
+
+    private void runUntil(long tick) {
+        while (processor.getCurrentTick() < tick) processor.doTick();
+    }
+
+    private class RecordingTask extends TickableTask {
+        final LongArrayList ranOn = new LongArrayList();
+        final LongArrayList finishedOn = new LongArrayList();
+        final LongUnaryOperator wakeInterval;
+        int firstTicks;
+
+        RecordingTask(long tickDuration, LongUnaryOperator wakeInterval) {
+            super(tickDuration);
+            this.wakeInterval = wakeInterval;
+        }
+
+        @Override
+        public long getWakeInterval() {
+            return wakeInterval.applyAsLong(getTickDuration());
+        }
+
+        @Override
+        protected void onFirstTick() {
+            firstTicks++;
+        }
+
+        @Override
+        protected TickResult onTick() {
+            ranOn.add(processor.getCurrentTick());
+            return TickResult.CONTINUE;
+        }
+
+        @Override
+        protected void onFinish() {
+            finishedOn.add(processor.getCurrentTick());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.thatmg393.bettertpa4fabric.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+public class LocaleTablesTest {
+    // every locale shipped next to en_us
+    private static final List<String> BUNDLED_LOCALES = List.of("es_es");
+
+    @BeforeAll
+    public static void load() {
+        LocaleTables.load();
+    }
+
+    @Test
+    public void resolvesABundledLocale() {
+        assertEquals("Has enviado una solicitud de TPA a Steve.", LocaleTables.get("es_es", LangKeys.TPA_SENT).render("Steve").getString());
+        assertEquals("You sent a TPA request to Steve.", LocaleTables.get("en_us", LangKeys.TPA_SENT).render("Steve").getString());
+    }
+
+    @Test
+    public void unknownLocalesFallBackToTheDefault() {
+        assertEquals("You sent a TPA request to Steve.", LocaleTables.get("xx_xx", LangKeys.TPA_SENT).render("Steve").getString());
+        assertEquals("You sent a TPA request to Steve.", LocaleTables.get(null, LangKeys.TPA_SENT).render("Steve").getString());
+    }
+
+    @Test
+    public void bundledLocalesTranslateEveryKeyWithTheSamePlaceholders() throws IOException {
+        Map<String, String> english = readLangFile(LocaleTables.DEFAULT_LOCALE);
+
+        for (String locale : BUNDLED_LOCALES) {
+            Map<String, String> translated = readLangFile(locale);
+            assertEquals(english.keySet(), translated.keySet(), locale);
+
+            for (Map.Entry<String, String> entry : english.entrySet()) {
+                assertEquals(
+                    placeholders(entry.getValue()), placeholders(translated.get(entry.getKey())),
+                    locale + " " + entry.getKey()
+                );
+            }
+        }
+    }
+
+    private static int placeholders(String raw) {
+        int count = 0;
+        for (int i = raw.indexOf("{}"); i >= 0; i = raw.indexOf("{}", i + 2)) count++;
+        return count;
+    }
+
+    private static Map<String, String> readLangFile(String locale) throws IOException {
+        String path = "/assets/bettertpa4fabric/lang/" + locale + ".json";
+        try (InputStream in = LocaleTablesTest.class.getResourceAsStream(path)) {
+            assertNotNull(in, path);
+
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return new Gson().fromJson(reader, new TypeToken<Map<String, String>>() { }.getType());
+            }
+        }
+    }
+}